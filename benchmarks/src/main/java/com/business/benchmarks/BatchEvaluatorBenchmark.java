@@ -0,0 +1,79 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.business.BatchEvaluator;
+import com.business.ScalarBatchEvaluator;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class BatchEvaluatorBenchmark {
+	// The number of positions of each batch. The score of the benchmark is in positions per second.
+	private static final int BATCH_SIZE = 4096;
+	
+	@Param({"scalar", "vector"})
+	private String implementation;
+	
+	private BatchEvaluator evaluator;
+	private long[] playerMoves = new long[BATCH_SIZE];
+	private long[] opponentMoves = new long[BATCH_SIZE];
+	private int[] threeTokenLadders = new int[BATCH_SIZE];
+	private int[] fourTokenLadders = new int[BATCH_SIZE];
+	private int[] completedLadders = new int[BATCH_SIZE];
+	
+	@Setup
+	public void setUp() {
+		evaluator = implementation.equals("scalar")? new ScalarBatchEvaluator() : BatchEvaluator.create();
+		if (implementation.equals("vector") && (evaluator instanceof ScalarBatchEvaluator)) {
+			throw new IllegalStateException("The Vector API is not available.");
+		}
+		
+		// Positions of 10 to 40 tokens, split evenly between the players, on random cells.
+		SplittableRandom random = new SplittableRandom(1);
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			int numOfTokens = 10 + random.nextInt(31);
+			long occupiedCells = 0;
+			for (int token = 0; token < numOfTokens; token++) {
+				int cell;
+				do {
+					cell = random.nextInt(49);
+				} while ((occupiedCells & (1L << cell)) != 0);
+				occupiedCells |= 1L << cell;
+				if ((token % 2) == 0) {
+					playerMoves[i] |= 1L << cell;
+				}
+				else {
+					opponentMoves[i] |= 1L << cell;
+				}
+			}
+		}
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public int[] evaluate() {
+		evaluator.evaluate(playerMoves, opponentMoves, BATCH_SIZE, threeTokenLadders, fourTokenLadders, completedLadders);
+		return completedLadders;
+	}
+}
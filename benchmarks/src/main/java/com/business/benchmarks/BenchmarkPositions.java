@@ -0,0 +1,64 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business.benchmarks;
+
+import com.business.Board;
+import com.business.Move;
+import com.business.Player;
+
+public enum BenchmarkPositions {
+	// A fixed corpus of positions, each given as the moves played from the empty gameboard (player one moves first),
+	// along with the perft counts of the position at depths 1, 2, 3... which were checked against the original engine.
+	OPENING("G1 F1 H2", 46, 2070, 91080),
+	MIDDLEGAME("F2 H5 G4 J1 C1 I5 K1 D3 G3 G6 I3 F1 K3 J4 H3 I1 G5 H6 F3 J2", 29, 758, 19062, 456662),
+	ENDGAME("I4 H1 J4 C2 F5 C1 G1 J1 J3 I1 E1 F1 H6 E2 K3 M1 E4 F3 D2 K2 H5 G7 D3 D4 J2 H2 L2 D1 K1 I2 G4 G3", 17, 257, 3421, 43747, 500563);
+	
+	private String moves;
+	private long[] perftCounts;
+	
+	private BenchmarkPositions(String moves, long... perftCounts) {
+		this.moves = moves;
+		this.perftCounts = perftCounts;
+	}
+	
+	/**
+	 * Sets up the position on a new gameboard.
+	 * 
+	 * @return The gameboard.
+	 */
+	public Board createBoard() {
+		Board board = new Board();
+		Player player = Player.PLAYER_ONE;
+		for (String moveString : moves.split(" ")) {
+			Move move = new Move();
+			move.setMove(moveString);
+			board.setMoveOnBoard(move, player);
+			player = player.getNextPlayer();
+		}
+		return board;
+	}
+	
+	/**
+	 * Returns the player to move in the position.
+	 * 
+	 * @return The player to move.
+	 */
+	public Player getPlayerToMove() {
+		return (moves.split(" ").length % 2 == 0)? Player.PLAYER_ONE : Player.PLAYER_TWO;
+	}
+	
+	/**
+	 * Returns the known perft count of the position at the given depth.
+	 * 
+	 * @param depth The perft depth, from 1 to getMaxPerftDepth().
+	 * @return The number of leaf positions at the depth.
+	 */
+	public long getPerftCount(int depth) {
+		return perftCounts[depth - 1];
+	}
+	
+	public int getMaxPerftDepth() {
+		return perftCounts.length;
+	}
+}
@@ -0,0 +1,37 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkRunner {
+	// The results are written as JSON so they can be compared between engine changes.
+	private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+	
+	/**
+	 * Runs the benchmarks with the usual JMH command-line options (Ex: a regular expression selecting the benchmarks
+	 * to run), writing the results to jmh-result.json unless another result file or format is given.
+	 * 
+	 * @param args The JMH command-line options.
+	 */
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		OptionsBuilder options = new OptionsBuilder();
+		options.parent(commandLineOptions);
+		if (!commandLineOptions.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		if (!commandLineOptions.getResult().hasValue()) {
+			options.result(DEFAULT_RESULT_FILE);
+		}
+		Options builtOptions = options.build();
+		new Runner(builtOptions).run();
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.business.Board;
+import com.business.Player;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+	@Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+	private BenchmarkPositions position;
+	
+	private Board board;
+	private Player player;
+	private long emptyCells;
+	
+	@Setup
+	public void setUp() {
+		board = position.createBoard();
+		player = position.getPlayerToMove();
+		emptyCells = board.getEmptyCells();
+	}
+	
+	@Benchmark
+	public boolean hasPlayerWon() {
+		return board.hasPlayerWon(player);
+	}
+	
+	@Benchmark
+	public int getNumOfLaddersIncremental() {
+		return board.getNumOfLadders(player, 4) + board.getNumOfLadders(player, 3);
+	}
+	
+	@Benchmark
+	public int getNumOfLaddersScan() {
+		return board.getNumOfLadders(player, 2);
+	}
+	
+	@Benchmark
+	public long getWinningCells() {
+		return board.getWinningCells(player);
+	}
+	
+	/**
+	 * Sets and removes a token on every empty cell of the position. The result is divided by the
+	 * number of empty cells to get the cost of a single pair of calls.
+	 * 
+	 * @return The sum of the Zobrist keys seen, so the work can't be optimized away.
+	 */
+	@Benchmark
+	public long setAndRemoveEveryMove() {
+		long keys = 0;
+		long movesLeft = emptyCells;
+		while (movesLeft != 0) {
+			int move = Long.numberOfTrailingZeros(movesLeft);
+			movesLeft &= movesLeft - 1;
+			board.setMoveOnBoard(move, player);
+			keys += board.getZobristKey(player);
+			board.removeMoveFromBoard(move);
+		}
+		return keys;
+	}
+}
@@ -0,0 +1,62 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.business.Board;
+import com.business.MonteCarloSearch;
+import com.business.Move;
+import com.business.Player;
+import com.business.SearchLimits;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonteCarloBenchmark {
+	// The number of iterations of each search. The score of the benchmark is in playouts per second.
+	private static final int ITERATIONS = 10000;
+	
+	@Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+	private BenchmarkPositions position;
+	
+	@Param({"true", "false"})
+	private boolean biasedPlayouts;
+	
+	private Player player;
+	private MonteCarloSearch search;
+	private SearchLimits limits;
+	
+	@Setup
+	public void setUp() {
+		Board board = position.createBoard();
+		player = position.getPlayerToMove();
+		search = new MonteCarloSearch(board, 1, MonteCarloSearch.DEFAULT_MAX_NODES);
+		search.setBiasedPlayouts(biasedPlayouts);
+		limits = new SearchLimits(0);
+		limits.setNodeBudget(ITERATIONS);
+	}
+	
+	@Benchmark
+	@OperationsPerInvocation(ITERATIONS)
+	public Move search() {
+		return search.search(player, limits).getMove();
+	}
+}
@@ -0,0 +1,65 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.business.Perft;
+import com.business.Player;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+	@Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+	private BenchmarkPositions position;
+	
+	private Perft perft;
+	private Player player;
+	private int depth;
+	
+	/**
+	 * Checks the counts at every depth with the incremental state of the gameboard verified at every
+	 * position, so that a benchmark of a broken engine fails instead of reporting a time.
+	 */
+	@Setup
+	public void setUp() {
+		player = position.getPlayerToMove();
+		depth = position.getMaxPerftDepth();
+		Perft verifyingPerft = new Perft(position.createBoard(), true);
+		for (int i = 1; i <= depth; i++) {
+			checkCount(verifyingPerft.count(player, i), i);
+		}
+		perft = new Perft(position.createBoard(), false);
+	}
+	
+	@Benchmark
+	public long perft() {
+		long count = perft.count(player, depth);
+		checkCount(count, depth);
+		return count;
+	}
+	
+	private void checkCount(long count, int depth) {
+		if (count != position.getPerftCount(depth)) {
+			throw new IllegalStateException("Perft of " + position + " at depth " + depth + " is " + count
+				+ " instead of " + position.getPerftCount(depth) + ".");
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.business.AI;
+import com.business.Board;
+import com.business.Move;
+import com.business.Player;
+import com.business.TranspositionTable;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+	@Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+	private BenchmarkPositions position;
+	
+	@Param({"2", "4", "6"})
+	private int depth;
+	
+	private Board board;
+	private Player player;
+	private TranspositionTable transpositionTable;
+	private AI aI;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		board = position.createBoard();
+		player = position.getPlayerToMove();
+		transpositionTable = new TranspositionTable(TranspositionTable.DEFAULT_MEMORY_BUDGET, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+		aI = new AI(board, transpositionTable);
+	}
+	
+	/**
+	 * Every search starts from an empty transposition table, the way the first move of a game does.
+	 */
+	@Setup(Level.Invocation)
+	public void clearTranspositionTable() {
+		transpositionTable.clear();
+	}
+	
+	@Benchmark
+	public Move getBestMove() {
+		return aI.getBestMove(player, AI.ALPHA_DEFAULT, AI.BETA_DEFAULT, depth);
+	}
+}
@@ -0,0 +1,338 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.app;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import com.business.AI;
+import com.business.Board;
+import com.business.GameRecord;
+import com.business.GameRecordReader;
+import com.business.Player;
+import com.business.SearchLimits;
+import com.business.SearchResult;
+import com.business.TranspositionTable;
+
+public class BatchAnalyzer {
+	// A position record is player one's tokens (8 bytes), player two's tokens (8 bytes) and the index of the
+	// player to move (1 byte).
+	private static final int BYTES_PER_POSITION = 17;
+	
+	// A progress line is printed every REPORT_INTERVAL positions.
+	private static final int REPORT_INTERVAL = 1000;
+	
+	// The number of positions waiting or being searched per worker. Reading stops while this many positions per
+	// worker are ahead of the output, so the memory used doesn't depend on the size of the input.
+	private static final int POSITIONS_IN_FLIGHT_PER_WORKER = 4;
+	
+	// A position to search and the result it is waiting for. END_OF_INPUT, with no position, tells the writer to stop.
+	private static class Task {
+		private long playerOneMoves;
+		private long playerTwoMoves;
+		private Player playerToMove;
+		private CompletableFuture<String> result;
+	}
+	
+	private static final Task END_OF_INPUT = new Task();
+	
+	private int numOfWorkers;
+	private SearchLimits searchLimits;
+	private int hashMegabytes;
+	
+	/**
+	 * Creates a batch analyzer that searches positions on the given number of workers. Every worker has its own
+	 * gameboard, search and transposition table, which is cleared before every position so that the result of a
+	 * position doesn't depend on the worker that searched it or on the positions searched before it.
+	 * 
+	 * @param numOfWorkers The number of positions searched at once.
+	 * @param searchLimits The depth or time limit of every position.
+	 * @param hashMegabytes The size of the transposition table of every worker.
+	 */
+	public BatchAnalyzer(int numOfWorkers, SearchLimits searchLimits, int hashMegabytes) {
+		this.numOfWorkers = numOfWorkers;
+		this.searchLimits = searchLimits;
+		this.hashMegabytes = hashMegabytes;
+	}
+	
+	/**
+	 * Analyzes every position of the input and writes one line per position to the output, in the order of the
+	 * input: the best move and its score from the point of view of PLAYER_ONE, followed by the depth reached
+	 * (Ex: "G3 2 6"), or "none" for a position where the game is over. The input is read as the positions are
+	 * searched, and each worker takes the next position as soon as it is done with one. The results are written
+	 * by a thread of their own as soon as all of the positions before them are written. The throughput is printed
+	 * to the standard error stream.
+	 * 
+	 * @param input The position records.
+	 * @param output The analysis.
+	 * @return The number of positions analyzed.
+	 */
+	public long analyze(DataInputStream input, Writer output) throws IOException, InterruptedException {
+		int capacity = numOfWorkers * POSITIONS_IN_FLIGHT_PER_WORKER;
+		BlockingQueue<Task> tasks = new ArrayBlockingQueue<Task>(capacity);
+		BlockingQueue<Task> pending = new ArrayBlockingQueue<Task>(capacity);
+		Thread[] workers = new Thread[numOfWorkers];
+		for (int i = 0; i < numOfWorkers; i++) {
+			workers[i] = new Thread(() -> work(tasks), "analysis-worker-" + i);
+			workers[i].setDaemon(true);
+			workers[i].start();
+		}
+		long startTime = System.nanoTime();
+		FutureTask<Long> writer = new FutureTask<Long>(() -> writeResults(pending, output, startTime));
+		Thread writerThread = new Thread(writer, "analysis-writer");
+		writerThread.setDaemon(true);
+		writerThread.start();
+		
+		long numOfPositions;
+		try {
+			Task task;
+			while ((task = readTask(input)) != null) {
+				putPending(pending, task, writer);
+				tasks.put(task);
+			}
+			putPending(pending, END_OF_INPUT, writer);
+			numOfPositions = writer.get();
+		}
+		catch (ExecutionException ee) {
+			throw new IllegalStateException("The analysis failed.", ee.getCause());
+		}
+		finally {
+			writerThread.interrupt();
+			for (Thread worker : workers) {
+				worker.interrupt();
+			}
+		}
+		printThroughput(numOfPositions, startTime);
+		return numOfPositions;
+	}
+	
+	/**
+	 * Adds a task to the tasks waiting to be written, waiting while too many are. The wait ends with the failure of
+	 * the writer if it stops, such as after a search failed.
+	 * 
+	 * @param pending The tasks waiting to be written.
+	 * @param task The task to add.
+	 * @param writer The writer of the results.
+	 */
+	private static void putPending(BlockingQueue<Task> pending, Task task, FutureTask<Long> writer) throws InterruptedException, ExecutionException {
+		while (!pending.offer(task, 100, TimeUnit.MILLISECONDS)) {
+			if (writer.isDone()) {
+				writer.get();
+				throw new IllegalStateException("The writer stopped before the end of the input.");
+			}
+		}
+	}
+	
+	/**
+	 * Reads the next position record.
+	 * 
+	 * @param input The position records.
+	 * @return The task of the position, or null at the end of the input.
+	 * @throws IllegalArgumentException If the player to move is neither 0 nor 1.
+	 */
+	private static Task readTask(DataInputStream input) throws IOException {
+		Task task = new Task();
+		try {
+			task.playerOneMoves = input.readLong();
+		}
+		catch (EOFException eofe) {
+			return null;
+		}
+		task.playerTwoMoves = input.readLong();
+		byte playerToMove = input.readByte();
+		if (playerToMove == Player.PLAYER_ONE.getIndex()) {
+			task.playerToMove = Player.PLAYER_ONE;
+		}
+		else if (playerToMove == Player.PLAYER_TWO.getIndex()) {
+			task.playerToMove = Player.PLAYER_TWO;
+		}
+		else {
+			throw new IllegalArgumentException("Invalid player to move in a position record: " + playerToMove);
+		}
+		task.result = new CompletableFuture<String>();
+		return task;
+	}
+	
+	/**
+	 * Searches positions until the worker is interrupted, on a gameboard and with a search of the worker's own.
+	 * 
+	 * @param tasks The positions to search.
+	 */
+	private void work(BlockingQueue<Task> tasks) {
+		Board board = new Board();
+		TranspositionTable table = new TranspositionTable(hashMegabytes * 1024L * 1024L, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+		AI search = new AI(board, table);
+		search.setStateReuse(false); // Consecutive positions are unrelated, and results must not depend on which worker searched them.
+		try {
+			while (true) {
+				Task task = tasks.take();
+				try {
+					board.setPosition(task.playerOneMoves, task.playerTwoMoves);
+					if (board.hasPlayerWon(Player.PLAYER_ONE) || board.hasPlayerWon(Player.PLAYER_TWO) || board.isFull()) {
+						task.result.complete("none");
+						continue;
+					}
+					table.clear();
+					SearchResult result = search.search(task.playerToMove, searchLimits);
+					task.result.complete(result.getMove().getMove() + " " + result.getScore() + " " + result.getDepth());
+				}
+				catch (RuntimeException re) {
+					task.result.completeExceptionally(re);
+				}
+			}
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Writes the results in the order of the input, waiting for each one in turn, and prints the throughput every
+	 * REPORT_INTERVAL positions.
+	 * 
+	 * @param pending The positions in the order of the input.
+	 * @param output The analysis.
+	 * @param startTime The time the analysis started, from System.nanoTime().
+	 * @return The number of results written.
+	 */
+	private static long writeResults(BlockingQueue<Task> pending, Writer output, long startTime) throws IOException, InterruptedException {
+		long numOfResults = 0;
+		Task task;
+		while ((task = pending.take()) != END_OF_INPUT) {
+			output.write(task.result.join());
+			output.write('\n');
+			numOfResults++;
+			if (numOfResults % REPORT_INTERVAL == 0) {
+				printThroughput(numOfResults, startTime);
+			}
+		}
+		output.flush();
+		return numOfResults;
+	}
+	
+	private static void printThroughput(long numOfPositions, long startTime) {
+		long elapsedMillis = (System.nanoTime() - startTime) / 1000000;
+		System.err.println(String.format("%d positions in %d ms (%.1f positions/sec)", numOfPositions, elapsedMillis,
+			numOfPositions * 1000.0 / Math.max(elapsedMillis, 1)));
+	}
+	
+	/**
+	 * Writes every position of the recorded games, before each of their moves, as position records.
+	 * 
+	 * @param records The game records.
+	 * @param output The position records.
+	 * @return The number of positions written.
+	 */
+	public static long extractPositions(GameRecordReader records, DataOutputStream output) throws IOException {
+		long numOfPositions = 0;
+		for (int game = 0; game < records.getNumOfGames(); game++) {
+			GameRecord record = records.getGame(game);
+			long[] playersMoves = new long[2];
+			Player player = Player.PLAYER_ONE;
+			for (int i = 0; i < record.getNumOfMoves(); i++) {
+				output.writeLong(playersMoves[Player.PLAYER_ONE.getIndex()]);
+				output.writeLong(playersMoves[Player.PLAYER_TWO.getIndex()]);
+				output.writeByte(player.getIndex());
+				numOfPositions++;
+				playersMoves[player.getIndex()] |= 0b1L << record.getMove(i);
+				player = player.getNextPlayer();
+			}
+		}
+		return numOfPositions;
+	}
+	
+	/**
+	 * Analyzes a file of position records, each one being player one's tokens and player two's tokens as 8-byte
+	 * bit literals and the index of the player to move as 1 byte. The options are --input, --output (default:
+	 * standard output), --depth (default 6), --time (milliseconds per position, instead of a depth), --threads
+	 * (default: all processors) and --hash (megabytes of the transposition table of every worker, default 4). With
+	 * --extract, the positions of a game record file (see GameRecordWriter) are written to --output as position
+	 * records instead.
+	 * 
+	 * @param args The options.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		String inputPath = null;
+		String outputPath = null;
+		String recordsPath = null;
+		int depth = 6;
+		long timeMillis = 0;
+		int numOfThreads = Runtime.getRuntime().availableProcessors();
+		int hashMegabytes = 4;
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 == args.length) {
+				throw new IllegalArgumentException("Missing value for " + args[i]);
+			}
+			switch (args[i]) {
+			case "--input":
+				inputPath = args[i + 1];
+				break;
+			case "--output":
+				outputPath = args[i + 1];
+				break;
+			case "--extract":
+				recordsPath = args[i + 1];
+				break;
+			case "--depth":
+				depth = Integer.parseInt(args[i + 1]);
+				break;
+			case "--time":
+				timeMillis = Long.parseLong(args[i + 1]);
+				break;
+			case "--threads":
+				numOfThreads = Integer.parseInt(args[i + 1]);
+				break;
+			case "--hash":
+				hashMegabytes = Integer.parseInt(args[i + 1]);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+		
+		if (recordsPath != null) {
+			if (outputPath == null) {
+				throw new IllegalArgumentException("--extract needs an --output file.");
+			}
+			try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(Paths.get(outputPath))))) {
+				long numOfPositions = extractPositions(GameRecordReader.open(Paths.get(recordsPath)), output);
+				System.err.println("Wrote " + numOfPositions + " positions to " + outputPath);
+			}
+			return;
+		}
+		if (inputPath == null) {
+			throw new IllegalArgumentException("An --input file of positions is needed.");
+		}
+		
+		SearchLimits searchLimits = new SearchLimits((timeMillis > 0)? Integer.MAX_VALUE : depth);
+		searchLimits.setTimeBudgetMillis(timeMillis);
+		BatchAnalyzer analyzer = new BatchAnalyzer(numOfThreads, searchLimits, hashMegabytes);
+		Path input = Paths.get(inputPath);
+		if (Files.size(input) % BYTES_PER_POSITION != 0) {
+			throw new IllegalArgumentException("The input is not made of " + BYTES_PER_POSITION + "-byte position records.");
+		}
+		try (DataInputStream positions = new DataInputStream(new BufferedInputStream(Files.newInputStream(input)));
+			Writer output = new BufferedWriter(new OutputStreamWriter((outputPath != null)? Files.newOutputStream(Paths.get(outputPath))
+				: System.out, StandardCharsets.UTF_8))) {
+			analyzer.analyze(positions, output);
+		}
+	}
+}
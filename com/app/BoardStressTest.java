@@ -0,0 +1,207 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.app;
+
+import java.util.SplittableRandom;
+
+import com.business.Board;
+import com.business.BoardGeometry;
+import com.business.MultiWordBoard;
+import com.business.Perft;
+import com.business.Player;
+
+public class BoardStressTest {
+	private final MultiWordBoard board;
+	
+	// The standard gameboard every move is also played on when the triangle has 7 rows, to compare the two.
+	private final Board referenceBoard;
+	
+	// The moves of the playout being played, to undo them in reverse order.
+	private final int[] moves;
+	
+	/**
+	 * Creates a stress test of a MultiWordBoard with the given number of rows. With 7 rows, every move is also
+	 * played on a Board and the two gameboards must agree on every ladder count, winning cell and win.
+	 * 
+	 * @param numOfRows The number of rows of the triangle.
+	 */
+	public BoardStressTest(int numOfRows) {
+		board = new MultiWordBoard(new BoardGeometry(numOfRows));
+		referenceBoard = (numOfRows == BoardGeometry.STANDARD.getNumOfRows())? new Board() : null;
+		moves = new int[board.getGeometry().getNumOfCells()];
+	}
+	
+	/**
+	 * Plays random games to the end, checking the incremental state of the gameboard after every move and
+	 * again while every move is undone.
+	 * 
+	 * @param numOfGames The number of games to play.
+	 * @param seed The seed of the random moves.
+	 * @return The number of games won by player one, won by player two and drawn.
+	 */
+	public int[] playRandomGames(int numOfGames, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		int[] results = new int[3];
+		for (int game = 0; game < numOfGames; game++) {
+			Player player = Player.PLAYER_ONE;
+			int numOfMoves = 0;
+			while (!board.hasPlayerWon(player.getNextPlayer()) && !board.isFull()) {
+				int move = getRandomEmptyCell(random);
+				board.setMoveOnBoard(move, player);
+				if (referenceBoard != null) {
+					referenceBoard.setMoveOnBoard(move, player);
+				}
+				moves[numOfMoves++] = move;
+				check(game, numOfMoves);
+				player = player.getNextPlayer();
+			}
+			if (board.hasPlayerWon(Player.PLAYER_ONE)) {
+				results[0]++;
+			}
+			else if (board.hasPlayerWon(Player.PLAYER_TWO)) {
+				results[1]++;
+			}
+			else {
+				results[2]++;
+			}
+			
+			while (numOfMoves > 0) { // Undo the game, which must leave an empty gameboard.
+				board.removeMoveFromBoard(moves[--numOfMoves]);
+				if (referenceBoard != null) {
+					referenceBoard.removeMoveFromBoard(moves[numOfMoves]);
+				}
+				check(game, numOfMoves);
+			}
+			if (board.getNumOfEmptyCells() != board.getGeometry().getNumOfCells()) {
+				throw new IllegalStateException("Game " + game + ": the gameboard isn't empty after undoing every move.");
+			}
+		}
+		return results;
+	}
+	
+	/**
+	 * Picks an empty cell at random, every empty cell being equally likely.
+	 * 
+	 * @param random The source of random numbers.
+	 * @return The bit index of the cell.
+	 */
+	private int getRandomEmptyCell(SplittableRandom random) {
+		long[] emptyCells = board.getEmptyCells();
+		int skip = random.nextInt(board.getNumOfEmptyCells());
+		int word = 0;
+		while (skip >= Long.bitCount(emptyCells[word])) {
+			skip -= Long.bitCount(emptyCells[word++]);
+		}
+		for (; skip > 0; skip--) {
+			emptyCells[word] &= emptyCells[word] - 1;
+		}
+		return (word * 64) + Long.numberOfTrailingZeros(emptyCells[word]);
+	}
+	
+	/**
+	 * Checks the incremental state of the gameboard and, with 7 rows, compares it with the standard gameboard.
+	 * 
+	 * @param game The number of the game being played.
+	 * @param numOfMoves The number of moves on the gameboard.
+	 */
+	private void check(int game, int numOfMoves) {
+		if (!board.isConsistent()) {
+			throw new IllegalStateException("Game " + game + ", move " + numOfMoves + ": the incremental state is inconsistent.");
+		}
+		if (referenceBoard == null) {
+			return;
+		}
+		for (Player player : new Player[] {Player.PLAYER_ONE, Player.PLAYER_TWO}) {
+			boolean same = (board.hasPlayerWon(player) == referenceBoard.hasPlayerWon(player))
+				&& (board.getWinningCells(player)[0] == referenceBoard.getWinningCells(player));
+			for (int numberOfTokens = 3; numberOfTokens <= 5; numberOfTokens++) {
+				same &= board.getNumOfLadders(player, numberOfTokens) == referenceBoard.getNumOfLadders(player, numberOfTokens);
+			}
+			if (!same) {
+				throw new IllegalStateException("Game " + game + ", move " + numOfMoves + ": the gameboard disagrees with Board.");
+			}
+		}
+	}
+	
+	/**
+	 * Counts the positions reached after exactly the given number of moves, like Perft does for Board.
+	 * 
+	 * @param player The player to move.
+	 * @param depth The number of moves to make.
+	 * @return The number of leaf positions.
+	 */
+	public long perft(Player player, int depth) {
+		if (depth == 0 || board.isFull() || board.hasPlayerWon(player.getNextPlayer())) {
+			return 1;
+		}
+		
+		long leaves = 0;
+		long[] emptyCells = board.getEmptyCells();
+		for (int word = 0; word < emptyCells.length; word++) {
+			for (long movesLeft = emptyCells[word]; movesLeft != 0; movesLeft &= movesLeft - 1) {
+				int move = (word * 64) + Long.numberOfTrailingZeros(movesLeft);
+				board.setMoveOnBoard(move, player);
+				leaves += perft(player.getNextPlayer(), depth - 1);
+				board.removeMoveFromBoard(move);
+			}
+		}
+		return leaves;
+	}
+	
+	/**
+	 * Stress-tests a gameboard of any size from the command line, Ex: --rows 10 --games 20000 --perft 3
+	 * The options are --rows (3 to 12, default 9), --games (random games, default 10000), --perft (the depth of the
+	 * position count, default 3) and --seed. With 7 rows, the results are also checked against Board and Perft.
+	 * 
+	 * @param args The options.
+	 */
+	public static void main(String[] args) {
+		int numOfRows = 9;
+		int numOfGames = 10000;
+		int perftDepth = 3;
+		long seed = 1;
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 == args.length) {
+				throw new IllegalArgumentException("Missing value for " + args[i]);
+			}
+			switch (args[i]) {
+			case "--rows":
+				numOfRows = Integer.parseInt(args[i + 1]);
+				break;
+			case "--games":
+				numOfGames = Integer.parseInt(args[i + 1]);
+				break;
+			case "--perft":
+				perftDepth = Integer.parseInt(args[i + 1]);
+				break;
+			case "--seed":
+				seed = Long.parseLong(args[i + 1]);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+		
+		BoardStressTest stressTest = new BoardStressTest(numOfRows);
+		BoardGeometry geometry = stressTest.board.getGeometry();
+		System.out.println(String.format("%d rows: %d cells in %d words, %d ladders", numOfRows, geometry.getNumOfCells(),
+			geometry.getNumOfWords(), geometry.getNumOfLadders()));
+		
+		long startTime = System.nanoTime();
+		int[] results = stressTest.playRandomGames(numOfGames, seed);
+		long elapsedMillis = (System.nanoTime() - startTime) / 1000000;
+		System.out.println(String.format("%d random games checked in %d ms: player one won %d, player two won %d, %d draws",
+			numOfGames, elapsedMillis, results[0], results[1], results[2]));
+		
+		for (int depth = 1; depth <= perftDepth; depth++) {
+			startTime = System.nanoTime();
+			long leaves = stressTest.perft(Player.PLAYER_ONE, depth);
+			elapsedMillis = (System.nanoTime() - startTime) / 1000000;
+			if ((stressTest.referenceBoard != null) && (leaves != new Perft(stressTest.referenceBoard, false).count(Player.PLAYER_ONE, depth))) {
+				throw new IllegalStateException("Perft " + depth + " disagrees with Board.");
+			}
+			System.out.println(String.format("perft %d: %d positions in %d ms", depth, leaves, elapsedMillis));
+		}
+	}
+}
@@ -0,0 +1,188 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.app;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.business.AI;
+import com.business.Board;
+import com.business.Move;
+import com.business.OpeningBook;
+import com.business.Player;
+import com.business.SearchLimits;
+import com.business.TranspositionTable;
+
+public class BookBuilder {
+	// A progress line is printed every REPORT_INTERVAL positions.
+	private static final int REPORT_INTERVAL = 100;
+	
+	/**
+	 * Lists every position reachable in fewer than the given number of moves from the empty gameboard, once per
+	 * pair of mirrored positions, leaving out positions where the game is over. A position is given as the moves
+	 * played to reach it.
+	 * 
+	 * @param plies The number of moves of the book.
+	 * @return The positions, by number of moves played.
+	 */
+	public static List<int[]> listPositions(int plies) {
+		List<int[]> positions = new ArrayList<int[]>();
+		List<int[]> currentPly = new ArrayList<int[]>();
+		currentPly.add(new int[0]);
+		for (int ply = 0; ply < plies; ply++) {
+			positions.addAll(currentPly);
+			if (ply == plies - 1) {
+				break;
+			}
+			List<int[]> nextPly = new ArrayList<int[]>();
+			Set<Long> nextKeys = new HashSet<Long>();
+			for (int[] moves : currentPly) {
+				Board board = createBoard(moves);
+				Player player = (moves.length % 2 == 0)? Player.PLAYER_ONE : Player.PLAYER_TWO;
+				for (long cells = board.getEmptyCells(); cells != 0; cells &= cells - 1) {
+					int cell = Long.numberOfTrailingZeros(cells);
+					board.setMoveOnBoard(cell, player);
+					if (!board.hasPlayerWon(player) && nextKeys.add(board.getCanonicalKey(player.getNextPlayer()))) {
+						int[] nextMoves = new int[moves.length + 1];
+						System.arraycopy(moves, 0, nextMoves, 0, moves.length);
+						nextMoves[moves.length] = cell;
+						nextPly.add(nextMoves);
+					}
+					board.removeMoveFromBoard(cell);
+				}
+			}
+			currentPly = nextPly;
+		}
+		return positions;
+	}
+	
+	/**
+	 * Searches every position of the book and writes the best move of each one to the book file. The positions are
+	 * searched on a thread pool, and every thread reuses its own transposition table, cleared before every position so
+	 * that the book doesn't depend on which thread searched which position.
+	 * 
+	 * @param path The book file.
+	 * @param plies The number of moves of the book.
+	 * @param depth The depth every position is searched to.
+	 * @param numOfThreads The number of positions searched at once.
+	 * @param hashMegabytes The size of the transposition table of every thread.
+	 */
+	public static void build(String path, int plies, int depth, int numOfThreads, int hashMegabytes) throws IOException, InterruptedException {
+		List<int[]> positions = listPositions(plies);
+		System.out.println(positions.size() + " positions of up to " + (plies - 1) + " moves, searched to depth " + depth + " on "
+			+ numOfThreads + " threads");
+		
+		Map<Long, Move> entries = new ConcurrentHashMap<Long, Move>();
+		ThreadLocal<TranspositionTable> tables = ThreadLocal.withInitial(() ->
+			new TranspositionTable(hashMegabytes * 1024L * 1024L, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+		ExecutorService executor = Executors.newFixedThreadPool(numOfThreads);
+		CompletionService<Void> completionService = new ExecutorCompletionService<Void>(executor);
+		for (int[] moves : positions) {
+			completionService.submit(() -> {
+				searchPosition(moves, depth, tables.get(), entries);
+				return null;
+			});
+		}
+		
+		long startTime = System.currentTimeMillis();
+		try {
+			for (int i = 1; i <= positions.size(); i++) {
+				completionService.take().get();
+				if ((i % REPORT_INTERVAL == 0) || (i == positions.size())) {
+					System.out.println(i + "/" + positions.size() + " positions in " + (System.currentTimeMillis() - startTime) + " ms");
+				}
+			}
+		}
+		catch (ExecutionException ee) {
+			throw new IllegalStateException("A search failed.", ee.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		OpeningBook.write(Paths.get(path), entries, depth);
+		System.out.println("Wrote " + entries.size() + " positions to " + path);
+	}
+	
+	/**
+	 * Searches a position and adds its best move, in the canonical orientation, to the entries.
+	 * 
+	 * @param moves The moves played to reach the position.
+	 * @param depth The depth to search to.
+	 * @param table The transposition table of the thread, which is cleared first.
+	 * @param entries The entries of the book.
+	 */
+	private static void searchPosition(int[] moves, int depth, TranspositionTable table, Map<Long, Move> entries) {
+		Board board = createBoard(moves);
+		Player player = (moves.length % 2 == 0)? Player.PLAYER_ONE : Player.PLAYER_TWO;
+		table.clear();
+		AI search = new AI(board, table);
+		search.setStateReuse(false); // The positions are searched in any order, on any thread.
+		Move bestMove = search.search(player, new SearchLimits(depth)).getMove();
+		Move entry = new Move();
+		entry.setIndex(board.isCanonicalMirrored()? Board.mirrorCell(bestMove.getIndex()) : bestMove.getIndex());
+		entry.setScore(bestMove.getScore());
+		entries.put(board.getCanonicalKey(player), entry);
+	}
+	
+	private static Board createBoard(int[] moves) {
+		Board board = new Board();
+		Player player = Player.PLAYER_ONE;
+		for (int move : moves) {
+			board.setMoveOnBoard(move, player);
+			player = player.getNextPlayer();
+		}
+		return board;
+	}
+	
+	/**
+	 * Builds an opening book. The options are --output (default opening-book.bin), --plies (the number of moves
+	 * of the game played from the book, default 3), --depth (default 6), --threads (default: all processors) and
+	 * --hash (megabytes of the transposition table of every thread, default 16).
+	 * 
+	 * @param args The options.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		String path = "opening-book.bin";
+		int plies = 3;
+		int depth = 6;
+		int numOfThreads = Runtime.getRuntime().availableProcessors();
+		int hashMegabytes = 16;
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 == args.length) {
+				throw new IllegalArgumentException("Missing value for " + args[i]);
+			}
+			switch (args[i]) {
+			case "--output":
+				path = args[i + 1];
+				break;
+			case "--plies":
+				plies = Integer.parseInt(args[i + 1]);
+				break;
+			case "--depth":
+				depth = Integer.parseInt(args[i + 1]);
+				break;
+			case "--threads":
+				numOfThreads = Integer.parseInt(args[i + 1]);
+				break;
+			case "--hash":
+				hashMegabytes = Integer.parseInt(args[i + 1]);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+		build(path, plies, depth, numOfThreads, hashMegabytes);
+	}
+}
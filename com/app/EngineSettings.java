@@ -0,0 +1,153 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.app;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+import com.business.Board;
+import com.business.Computer;
+import com.business.EngineType;
+import com.business.OpeningBook;
+import com.business.Player;
+import com.business.SearchMode;
+import com.business.TranspositionTable;
+
+public class EngineSettings {
+	// The transposition table of a tournament engine is kept small, since many games run at once.
+	private static final int DEFAULT_HASH_MEGABYTES = 4;
+	
+	// The depth of the search when neither a depth nor a budget is given, which is the depth of Computer.
+	private static final int DEFAULT_DEPTH = 4;
+	
+	// The minimum number of levels left for late move reductions, as in AI.
+	private static final int REDUCTION_MIN_LEVEL = 3;
+	
+	private String description;
+	private EngineType engineType = EngineType.MINIMAX;
+	private SearchMode searchMode = SearchMode.ALPHA_BETA;
+	private int maxDepth;
+	private long moveTimeBudget;
+	private long nodeBudget;
+	private int threatSearchMoves = -1;
+	private int reductionMoveNumber = -1;
+	private int hashMegabytes = DEFAULT_HASH_MEGABYTES;
+	private int endgameThreshold = -1;
+	private boolean stateReuse = true;
+	
+	// The book is mapped once, when the settings are parsed, and shared by every computer created from them.
+	private OpeningBook openingBook;
+	
+	/**
+	 * Parses engine settings given as comma-separated key=value pairs (Ex: "mode=PRINCIPAL_VARIATION,depth=6,time=50").
+	 * The keys are engine (MINIMAX or MONTE_CARLO), mode (ALPHA_BETA or PRINCIPAL_VARIATION), depth, time (milliseconds
+	 * per move), nodes (per move, which is the number of iterations of MONTE_CARLO, also given as iterations),
+	 * threat (attacker moves of the threat search, 0 for none), lmr (move number of late move reductions, 0 for none),
+	 * hash (megabytes of the transposition table), endgame (empty cells at which the endgame solver takes over, 0 for
+	 * never), reuse (false to start every search from scratch instead of from the state of the last move) and book
+	 * (the path of an opening book built by BookBuilder). Keys that are left out keep the defaults of Computer.
+	 * 
+	 * @param specification The settings, or an empty string for the defaults.
+	 * @return The settings.
+	 */
+	public static EngineSettings parse(String specification) {
+		EngineSettings settings = new EngineSettings();
+		settings.description = specification.isEmpty()? "default" : specification;
+		for (String pair : specification.split(",")) {
+			if (pair.isEmpty()) {
+				continue;
+			}
+			String[] keyAndValue = pair.split("=", 2);
+			if (keyAndValue.length != 2) {
+				throw new IllegalArgumentException("Engine settings must be key=value pairs: " + pair);
+			}
+			String value = keyAndValue[1].trim();
+			switch (keyAndValue[0].trim()) {
+			case "engine":
+				settings.engineType = EngineType.valueOf(value.toUpperCase());
+				break;
+			case "mode":
+				settings.searchMode = SearchMode.valueOf(value.toUpperCase());
+				break;
+			case "depth":
+				settings.maxDepth = Integer.parseInt(value);
+				break;
+			case "time":
+				settings.moveTimeBudget = Long.parseLong(value);
+				break;
+			case "nodes":
+			case "iterations":
+				settings.nodeBudget = Long.parseLong(value);
+				break;
+			case "threat":
+				settings.threatSearchMoves = Integer.parseInt(value);
+				break;
+			case "lmr":
+				settings.reductionMoveNumber = Integer.parseInt(value);
+				break;
+			case "hash":
+				settings.hashMegabytes = Integer.parseInt(value);
+				break;
+			case "endgame":
+				settings.endgameThreshold = Integer.parseInt(value);
+				break;
+			case "reuse":
+				settings.stateReuse = Boolean.parseBoolean(value);
+				break;
+			case "book":
+				try {
+					settings.openingBook = OpeningBook.open(Paths.get(value));
+				}
+				catch (IOException ioe) {
+					throw new UncheckedIOException("The opening book can't be read: " + value, ioe);
+				}
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown engine setting: " + keyAndValue[0]);
+			}
+		}
+		return settings;
+	}
+	
+	/**
+	 * Creates a computer player with these settings. When a time or node budget is given without a depth,
+	 * the search is only limited by the budget.
+	 * 
+	 * @param player The player the computer plays.
+	 * @param board The gameboard of the game.
+	 * @return The computer player.
+	 */
+	public Computer createComputer(Player player, Board board) {
+		Computer computer = new Computer(player, board,
+			new TranspositionTable(hashMegabytes * 1024L * 1024L, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+		computer.setEngineType(engineType);
+		computer.setSearchMode(searchMode);
+		if (maxDepth > 0) {
+			computer.setMaxDepth(maxDepth);
+		}
+		else {
+			computer.setMaxDepth(((moveTimeBudget > 0) || (nodeBudget > 0))? Integer.MAX_VALUE : DEFAULT_DEPTH);
+		}
+		computer.setMoveTimeBudget(moveTimeBudget);
+		computer.setNodeBudget(nodeBudget);
+		if (threatSearchMoves >= 0) {
+			computer.setThreatSearch(threatSearchMoves);
+		}
+		if (reductionMoveNumber >= 0) {
+			computer.setLateMoveReductions(reductionMoveNumber, REDUCTION_MIN_LEVEL);
+		}
+		if (endgameThreshold >= 0) {
+			computer.setEndgameThreshold(endgameThreshold);
+		}
+		computer.setStateReuse(stateReuse);
+		computer.setOpeningBook(openingBook);
+		return computer;
+	}
+	
+	@Override
+	public String toString() {
+		return description;
+	}
+}
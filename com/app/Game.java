@@ -3,52 +3,104 @@
  */
 package com.app;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.InputMismatchException;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 import com.business.Board;
+import com.business.BoardRenderer;
 import com.business.Computer;
+import com.business.GameRecord;
+import com.business.GameRecordWriter;
 import com.business.Human;
+import com.business.OpeningBook;
 import com.business.Player;
+import com.business.SearchStatistics;
 
 public class Game {
 	private static Board board;
 	private static Object[] players;
 	
+	// The opening book of the computer players, mapped from the file named by the polarizedladder.book system
+	// property, or null to always search.
+	private static OpeningBook openingBook;
+	
+	// The file the game is recorded to, given by the --record option, or null to not record it.
+	private static GameRecordWriter recordWriter;
+	
+	// Whether the gameboard is redrawn in place with ANSI escape sequences (the --ansi option), and whether games
+	// between computers skip rendering and print only their result (the --quiet option).
+	private static boolean ansi;
+	private static boolean quiet;
+	
 	/**
 	 * Initiate gameplay!
 	 */
-	public static void play() {
+	public static void play() throws IOException {
 		board = new Board();
 		players = new Object[2];
 		Player currentPlayer = Player.PLAYER_ONE;
 		boolean gameOver = false;
+		GameRecord record = new GameRecord(true, true);
 		
 		// We begin the game.
 		printWelcomeMessage();
 		initializePlayers();
-		board.printGameBoardToConsole();
+		boolean rendering = !quiet || !((players[Player.PLAYER_ONE.getIndex()] instanceof Computer)
+			&& (players[Player.PLAYER_TWO.getIndex()] instanceof Computer)); // A human always needs to see the gameboard.
+		BoardRenderer renderer = new BoardRenderer(System.out, ansi);
+		if (rendering) {
+			renderer.render(board);
+		}
 
 		while (!gameOver) {			
 			if (players[currentPlayer.getIndex()] instanceof Computer) {
-				((Computer) players[currentPlayer.getIndex()]).makeMove();
+				Computer computer = (Computer) players[currentPlayer.getIndex()];
+				computer.makeMove();
+				if (rendering) {
+					System.out.println("\n" + currentPlayer + " played " + computer.getLastSearchResult().getMove().getMove() + " (searched to depth "
+						+ computer.getLastSearchResult().getDepth() + " in " + computer.getLastSearchResult().getElapsedMillis() + " ms)");
+				}
+				record.addMove(computer.getLastSearchResult().getMove().getIndex(), computer.getLastSearchResult().getScore(),
+					computer.getLastSearchResult().getElapsedMillis());
+				if (SearchStatistics.ENABLED && rendering) {
+					System.out.println(computer.getLastSearchStatistics());
+				}
+				if (players[currentPlayer.getNextPlayer().getIndex()] instanceof Human) { // Search on the human's time.
+					computer.startPondering();
+				}
 			}
 			else {
+				long emptyCells = board.getEmptyCells();
+				long startTime = System.currentTimeMillis();
 				((Human) players[currentPlayer.getIndex()]).makeMove();
+				record.addMove(Long.numberOfTrailingZeros(emptyCells & ~board.getEmptyCells()), 0, System.currentTimeMillis() - startTime);
 			}
 			
-			board.printGameBoardToConsole();
+			if (rendering) {
+				renderer.render(board);
+			}
 
 			if (board.hasPlayerWon(currentPlayer)) {
 				System.out.println("*****************************" + currentPlayer + " has won the game!!*****************************");
+				record.finish(currentPlayer);
 				gameOver = true;
 			}
 			else if (board.isFull()) {
 				System.out.println("*****************************The game is a draw!!*****************************");
+				record.finish(null);
 				gameOver = true;
+			}
+			if (gameOver && (players[currentPlayer.getNextPlayer().getIndex()] instanceof Computer)) {
+				((Computer) players[currentPlayer.getNextPlayer().getIndex()]).stopPondering();
 			}	
 			currentPlayer = currentPlayer.getNextPlayer();	
 		}
+		renderer.close();
+		if (recordWriter != null) {
+			recordWriter.write(record);
+		}
 	}
 	
 	public static void printWelcomeMessage() {
@@ -88,12 +140,14 @@ public class Game {
 			break;
 		case 2: // Human vs Computer.
 			chosenPlayer = choosePlayer();
-			players[chosenPlayer.getNextPlayer().getIndex()] = new Computer(chosenPlayer.getNextPlayer(), board);
+			Computer computer = createComputer(chosenPlayer.getNextPlayer());
+			computer.setPondering(true);
+			players[chosenPlayer.getNextPlayer().getIndex()] = computer;
 			players[chosenPlayer.getIndex()] = new Human(chosenPlayer, board);
 			break;
 		case 3: // Computer vs Computer.
-			players[Player.PLAYER_ONE.getIndex()] = new Computer(Player.PLAYER_ONE, board);
-			players[Player.PLAYER_TWO.getIndex()] = new Computer(Player.PLAYER_TWO, board);
+			players[Player.PLAYER_ONE.getIndex()] = createComputer(Player.PLAYER_ONE);
+			players[Player.PLAYER_TWO.getIndex()] = createComputer(Player.PLAYER_TWO);
 			break;
 		default: // Invalid Option.
 			System.out.println("Invalid Option");
@@ -101,6 +155,12 @@ public class Game {
 		}	
 	}
 		
+	private static Computer createComputer(Player player) {
+		Computer computer = new Computer(player, board);
+		computer.setOpeningBook(openingBook);
+		return computer;
+	}
+	
 	/**
 	 * If the game is to be played Human vs Computer then this method returns
 	 * the chosen Player that the human will be.
@@ -137,11 +197,42 @@ public class Game {
 	}
 	
 	/**
-	 * Begin App!
+	 * Begin App! The option --record appends the game, with the score and time of every move, to the given
+	 * record file (see GameRecordWriter). The option --ansi redraws only the changed cells of the gameboard in
+	 * place, and --quiet skips rendering in Computer vs Computer games and prints only the result.
 	 * 
 	 * @param args
 	 */
-	public static void main(String[] args) {
-		play();
+	public static void main(String[] args) throws IOException {
+		String bookPath = System.getProperty("polarizedladder.book");
+		if (bookPath != null) {
+			openingBook = OpeningBook.open(Paths.get(bookPath));
+		}
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--record":
+				if (i + 1 == args.length) {
+					throw new IllegalArgumentException("Missing file for --record");
+				}
+				recordWriter = new GameRecordWriter(Paths.get(args[++i]));
+				break;
+			case "--quiet":
+				quiet = true;
+				break;
+			case "--ansi":
+				ansi = true;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+		try {
+			play();
+		}
+		finally {
+			if (recordWriter != null) {
+				recordWriter.close();
+			}
+		}
 	}
 }
@@ -0,0 +1,127 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.app;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class GameServer {
+	// The port the server listens on by default.
+	public static final int DEFAULT_PORT = 4747;
+	
+	// The transposition table of a session is small, since hundreds of sessions can be open at once.
+	private static final String DEFAULT_ENGINE_SETTINGS = "hash=1";
+	
+	private ServerSocket serverSocket;
+	private EngineSettings engineSettings;
+	
+	// Every session waits on its client on a thread of its own, but the searches of all sessions share a pool with one
+	// thread per processor. Idle sessions then cost only a thread each and never take processor time from the searches.
+	private ExecutorService sessionExecutor;
+	private ExecutorService searchExecutor;
+	
+	/**
+	 * Creates a game server on the loopback address.
+	 * 
+	 * @param port The port to listen on, or 0 for any free port.
+	 * @param engineSettings The settings of the computer players of every session.
+	 * @param numOfSearchThreads The number of searches that can run at once.
+	 * @throws IOException If the port can't be opened.
+	 */
+	public GameServer(int port, EngineSettings engineSettings, int numOfSearchThreads) throws IOException {
+		this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+		this.engineSettings = engineSettings;
+		this.sessionExecutor = newSessionExecutor();
+		this.searchExecutor = Executors.newFixedThreadPool(numOfSearchThreads, runnable -> {
+			Thread thread = new Thread(runnable, "session-search");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+	
+	/**
+	 * Accepts connections until the server is closed, starting a session for each one.
+	 */
+	public void serve() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				sessionExecutor.execute(new GameSession(socket, engineSettings, searchExecutor));
+			}
+			catch (IOException ioe) { // The server socket was closed.
+			}
+		}
+	}
+	
+	/**
+	 * Stops accepting connections and ends every session.
+	 */
+	public void close() throws IOException {
+		serverSocket.close();
+		sessionExecutor.shutdownNow();
+		searchExecutor.shutdownNow();
+	}
+	
+	/**
+	 * Creates an executor that runs every task on a thread of its own. Virtual threads are used when the
+	 * Java runtime has them (Java 21 and later), otherwise a pool of platform threads that grows as needed.
+	 * 
+	 * @return The executor.
+	 */
+	static ExecutorService newSessionExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch (ReflectiveOperationException roe) { // There are no virtual threads in this Java runtime.
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "session");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+	
+	/**
+	 * Runs the server until the process is stopped. The options are --port, --search-threads (default: all processors)
+	 * and --engine (see EngineSettings, default "hash=1").
+	 * 
+	 * @param args The options.
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = DEFAULT_PORT;
+		int numOfSearchThreads = Runtime.getRuntime().availableProcessors();
+		String engineSpecification = DEFAULT_ENGINE_SETTINGS;
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 == args.length) {
+				throw new IllegalArgumentException("Missing value for " + args[i]);
+			}
+			switch (args[i]) {
+			case "--port":
+				port = Integer.parseInt(args[i + 1]);
+				break;
+			case "--search-threads":
+				numOfSearchThreads = Integer.parseInt(args[i + 1]);
+				break;
+			case "--engine":
+				engineSpecification = args[i + 1];
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+		
+		GameServer server = new GameServer(port, EngineSettings.parse(engineSpecification), numOfSearchThreads);
+		System.out.println("Listening on port " + server.getPort());
+		server.serve();
+	}
+}
@@ -0,0 +1,172 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.app;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.business.Board;
+import com.business.Computer;
+import com.business.Move;
+import com.business.Player;
+import com.business.SearchResult;
+
+public class GameSession implements Runnable {
+	private Socket socket;
+	private EngineSettings engineSettings;
+	
+	// The searches of every session run on this shared pool, which is sized to the number of processors.
+	private ExecutorService searchExecutor;
+	
+	// The game of the session: its own gameboard, the player to move and a computer for each player.
+	private Board board;
+	private Player currentPlayer;
+	private Computer[] computers;
+	
+	/**
+	 * Creates a session over a client connection. The client sends one command per line and gets one reply per line:
+	 * <ul>
+	 * <li>new: starts a new game. Reply: ok</li>
+	 * <li>move G3: plays the move for the player to move. Reply: ok, or error followed by the reason</li>
+	 * <li>go: lets the computer play for the player to move. Reply: bestmove G3 score 2 depth 4 time 12</li>
+	 * <li>quit: ends the session. Reply: bye</li>
+	 * </ul>
+	 * When a move ends the game, its reply is followed by a line with the result: "result PLAYER_ONE", "result PLAYER_TWO"
+	 * or "result draw". A new game must then be started before moving again.
+	 * 
+	 * @param socket The connection to the client.
+	 * @param engineSettings The settings of the computer players.
+	 * @param searchExecutor The pool the searches run on.
+	 */
+	public GameSession(Socket socket, EngineSettings engineSettings, ExecutorService searchExecutor) {
+		this.socket = socket;
+		this.engineSettings = engineSettings;
+		this.searchExecutor = searchExecutor;
+		newGame();
+	}
+	
+	/**
+	 * Reads and answers the commands of the client until it quits or disconnects.
+	 */
+	@Override
+	public void run() {
+		try (Socket client = socket;
+			BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+			PrintWriter writer = new PrintWriter(client.getOutputStream(), true, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] command = line.trim().split("\\s+");
+				switch (command[0]) {
+				case "new":
+					newGame();
+					writer.println("ok");
+					break;
+				case "move":
+					replyToMove(writer, playMove((command.length > 1)? command[1] : ""));
+					break;
+				case "go":
+					replyToMove(writer, playComputerMove());
+					break;
+				case "quit":
+					writer.println("bye");
+					return;
+				default:
+					writer.println("error unknown command " + command[0]);
+				}
+			}
+		}
+		catch (IOException ioe) { // The client disconnected.
+		}
+		catch (InterruptedException ie) { // The server is shutting down.
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private void newGame() {
+		board = new Board();
+		currentPlayer = Player.PLAYER_ONE;
+		computers = new Computer[] {engineSettings.createComputer(Player.PLAYER_ONE, board), engineSettings.createComputer(Player.PLAYER_TWO, board)};
+	}
+	
+	/**
+	 * Plays a move of the client for the player to move.
+	 * 
+	 * @param moveString The move (Ex: G3).
+	 * @return The reply to the client.
+	 */
+	private String playMove(String moveString) {
+		if (isGameOver()) {
+			return "error the game is over";
+		}
+		Move move = new Move();
+		if (!move.setMove(moveString)) {
+			return "error invalid move " + moveString;
+		}
+		if (!board.setMoveOnBoard(move, currentPlayer)) {
+			return "error move already taken " + moveString;
+		}
+		currentPlayer = currentPlayer.getNextPlayer();
+		return "ok";
+	}
+	
+	/**
+	 * Lets the computer play for the player to move. The search runs on the shared search pool while this session
+	 * waits, so that the number of searches running at once never exceeds the number of processors.
+	 * 
+	 * @return The reply to the client.
+	 */
+	private String playComputerMove() throws InterruptedException {
+		if (isGameOver()) {
+			return "error the game is over";
+		}
+		Computer computer = computers[currentPlayer.getIndex()];
+		Future<SearchResult> search = searchExecutor.submit(() -> {
+			computer.makeMove();
+			return computer.getLastSearchResult();
+		});
+		try {
+			SearchResult result = search.get();
+			currentPlayer = currentPlayer.getNextPlayer();
+			return "bestmove " + result.getMove().getMove() + " score " + result.getScore() + " depth " + result.getDepth()
+				+ " time " + result.getElapsedMillis();
+		}
+		catch (ExecutionException ee) {
+			return "error " + ee.getCause();
+		}
+		catch (InterruptedException ie) {
+			search.cancel(true);
+			throw ie;
+		}
+	}
+	
+	private boolean isGameOver() {
+		return board.hasPlayerWon(currentPlayer.getNextPlayer()) || board.isFull();
+	}
+	
+	/**
+	 * Sends the reply to a move, followed by the result of the game if the move ended it.
+	 * 
+	 * @param writer The writer of the connection.
+	 * @param reply The reply to the move.
+	 */
+	private void replyToMove(PrintWriter writer, String reply) {
+		writer.println(reply);
+		if (reply.startsWith("error")) {
+			return;
+		}
+		if (board.hasPlayerWon(currentPlayer.getNextPlayer())) {
+			writer.println("result " + currentPlayer.getNextPlayer());
+		}
+		else if (board.isFull()) {
+			writer.println("result draw");
+		}
+	}
+}
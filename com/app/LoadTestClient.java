@@ -0,0 +1,209 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.app;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.business.Board;
+import com.business.Move;
+import com.business.Player;
+
+public class LoadTestClient {
+	/**
+	 * Plays against the server in every session at once. Each session alternates a random move of its own with
+	 * a "go" command, and the time from sending "go" to getting the computer's move is measured.
+	 * 
+	 * @param host The address of the server.
+	 * @param port The port of the server.
+	 * @param numOfSessions The number of sessions to open at once.
+	 * @param movesPerSession The number of computer moves to measure in every session.
+	 * @return The latency of every computer move, in nanoseconds and sorted.
+	 */
+	public static long[] run(InetAddress host, int port, int numOfSessions, int movesPerSession) throws InterruptedException {
+		ExecutorService executor = GameServer.newSessionExecutor();
+		List<Future<long[]>> sessions = new ArrayList<Future<long[]>>();
+		for (int i = 0; i < numOfSessions; i++) {
+			long seed = i;
+			sessions.add(executor.submit(() -> playSession(host, port, movesPerSession, seed)));
+		}
+		
+		long[] latencies = new long[numOfSessions * movesPerSession];
+		int numOfLatencies = 0;
+		try {
+			for (Future<long[]> session : sessions) {
+				long[] sessionLatencies = session.get();
+				System.arraycopy(sessionLatencies, 0, latencies, numOfLatencies, sessionLatencies.length);
+				numOfLatencies += sessionLatencies.length;
+			}
+		}
+		catch (ExecutionException ee) {
+			throw new IllegalStateException("A session failed.", ee.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		Arrays.sort(latencies);
+		return latencies;
+	}
+	
+	/**
+	 * Plays the given number of computer moves in a session of its own, starting new games as they end.
+	 * 
+	 * @param host The address of the server.
+	 * @param port The port of the server.
+	 * @param numOfMoves The number of computer moves to measure.
+	 * @param seed The seed of the random moves of the session.
+	 * @return The latency of every computer move, in nanoseconds.
+	 */
+	private static long[] playSession(InetAddress host, int port, int numOfMoves, long seed) throws IOException {
+		SplittableRandom random = new SplittableRandom(seed);
+		long[] latencies = new long[numOfMoves];
+		try (Socket socket = new Socket(host, port);
+			BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			PrintWriter writer = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+			socket.setTcpNoDelay(true);
+			Board board = new Board();
+			send(writer, reader, "new");
+			for (int i = 0; i < numOfMoves; i++) {
+				if (isGameOver(board)) {
+					board = new Board();
+					send(writer, reader, "new");
+				}
+				Move move = randomMove(board, random);
+				board.setMoveOnBoard(move, Player.PLAYER_ONE);
+				String reply = send(writer, reader, "move " + move.getMove());
+				if (isGameOver(board)) {
+					reader.readLine(); // The result of the game.
+					board = new Board();
+					send(writer, reader, "new");
+					board.setMoveOnBoard(move, Player.PLAYER_ONE);
+					reply = send(writer, reader, "move " + move.getMove());
+				}
+				if (!reply.equals("ok")) {
+					throw new IllegalStateException("Unexpected reply: " + reply);
+				}
+				
+				long startTime = System.nanoTime();
+				reply = send(writer, reader, "go");
+				latencies[i] = System.nanoTime() - startTime;
+				String[] words = reply.split(" ");
+				if (!words[0].equals("bestmove")) {
+					throw new IllegalStateException("Unexpected reply: " + reply);
+				}
+				Move computerMove = new Move();
+				computerMove.setMove(words[1]);
+				board.setMoveOnBoard(computerMove, Player.PLAYER_TWO);
+				if (isGameOver(board)) {
+					reader.readLine(); // The result of the game.
+				}
+			}
+			send(writer, reader, "quit");
+		}
+		return latencies;
+	}
+	
+	private static String send(PrintWriter writer, BufferedReader reader, String command) throws IOException {
+		writer.println(command);
+		String reply = reader.readLine();
+		if (reply == null) {
+			throw new IOException("The server closed the connection.");
+		}
+		return reply;
+	}
+	
+	private static boolean isGameOver(Board board) {
+		return board.hasPlayerWon(Player.PLAYER_ONE) || board.hasPlayerWon(Player.PLAYER_TWO) || board.isFull();
+	}
+	
+	private static Move randomMove(Board board, SplittableRandom random) {
+		long emptyCells = board.getEmptyCells();
+		for (int skip = random.nextInt(Long.bitCount(emptyCells)); skip > 0; skip--) {
+			emptyCells &= emptyCells - 1;
+		}
+		Move move = new Move();
+		move.setIndex(Long.numberOfTrailingZeros(emptyCells));
+		return move;
+	}
+	
+	/**
+	 * Runs the load test and prints the p50, p99 and maximum latency of the computer moves. The options are --port,
+	 * --sessions (default 200), --moves (computer moves per session, default 20) and --server, which starts a server in
+	 * the same process with the given engine settings (see EngineSettings) instead of connecting to a running one.
+	 * 
+	 * @param args The options.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int port = GameServer.DEFAULT_PORT;
+		int numOfSessions = 200;
+		int movesPerSession = 20;
+		String serverEngineSpecification = null;
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 == args.length) {
+				throw new IllegalArgumentException("Missing value for " + args[i]);
+			}
+			switch (args[i]) {
+			case "--port":
+				port = Integer.parseInt(args[i + 1]);
+				break;
+			case "--sessions":
+				numOfSessions = Integer.parseInt(args[i + 1]);
+				break;
+			case "--moves":
+				movesPerSession = Integer.parseInt(args[i + 1]);
+				break;
+			case "--server":
+				serverEngineSpecification = args[i + 1];
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+		
+		GameServer server = null;
+		if (serverEngineSpecification != null) {
+			server = new GameServer(0, EngineSettings.parse(serverEngineSpecification), Runtime.getRuntime().availableProcessors());
+			port = server.getPort();
+			GameServer runningServer = server;
+			Thread serverThread = new Thread(() -> runningServer.serve(), "server");
+			serverThread.setDaemon(true);
+			serverThread.start();
+		}
+		
+		long startTime = System.nanoTime();
+		long[] latencies = run(InetAddress.getLoopbackAddress(), port, numOfSessions, movesPerSession);
+		long elapsedMillis = (System.nanoTime() - startTime) / 1000000;
+		if (server != null) {
+			server.close();
+		}
+		System.out.println(String.format("%d sessions, %d computer moves in %d ms (%.1f moves/sec)", numOfSessions, latencies.length,
+			elapsedMillis, latencies.length * 1000.0 / Math.max(elapsedMillis, 1)));
+		System.out.println(String.format("latency p50 %.2f ms  p99 %.2f ms  max %.2f ms", percentile(latencies, 50) / 1e6,
+			percentile(latencies, 99) / 1e6, latencies[latencies.length - 1] / 1e6));
+	}
+	
+	/**
+	 * Returns the given percentile of sorted values, by the nearest-rank method.
+	 * 
+	 * @param sortedValues The values, sorted.
+	 * @param percentile The percentile, from 0 to 100.
+	 * @return The value at the percentile.
+	 */
+	private static long percentile(long[] sortedValues, int percentile) {
+		int rank = (int) Math.ceil(percentile / 100.0 * sortedValues.length);
+		return sortedValues[Math.max(rank - 1, 0)];
+	}
+}
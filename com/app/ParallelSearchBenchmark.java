@@ -0,0 +1,67 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.app;
+
+import com.business.AI;
+import com.business.Board;
+import com.business.Move;
+import com.business.ParallelSearch;
+import com.business.Player;
+import com.business.SearchLimits;
+import com.business.SearchResult;
+import com.business.TranspositionTable;
+
+public class ParallelSearchBenchmark {
+	// The positions to search, each given as the moves played from the empty gameboard (player one moves first).
+	private static final String[][] POSITIONS = {
+		{},
+		{"G1", "F1", "H2"},
+		{"M1", "I2", "I3", "I4", "G5", "G4", "G3", "I1", "J3", "J1"},
+		{"M1", "I2", "I3", "I4", "G5", "G4", "G3", "I1", "J3", "J1", "K2", "H2", "H3", "K3", "J2", "K1", "F4", "E4"}
+	};
+	
+	/**
+	 * Searches every position to a fixed depth with 1, 2, 4... threads up to the given maximum, and prints
+	 * the time it took to reach the depth and the number of nodes searched per second by all threads.
+	 * 
+	 * @param args The depth to search to (default 7) and the maximum number of threads (default: all processors).
+	 */
+	public static void main(String[] args) {
+		int depth = (args.length > 0)? Integer.parseInt(args[0]) : 7;
+		int maxThreads = (args.length > 1)? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		
+		System.out.println("threads  position  depth  time-to-depth (ms)  nodes  nodes/sec");
+		for (int numOfThreads = 1; numOfThreads <= maxThreads; numOfThreads *= 2) {
+			for (int i = 0; i < POSITIONS.length; i++) {
+				Board board = new Board();
+				Player player = setUpPosition(board, POSITIONS[i]);
+				ParallelSearch search = new ParallelSearch(board, new AI(board, new TranspositionTable()), numOfThreads);
+				SearchResult result = search.search(player, new SearchLimits(depth));
+				search.shutdown();
+				
+				long nodesPerSecond = (result.getNodes() * 1000) / Math.max(result.getElapsedMillis(), 1);
+				System.out.println(String.format("%7d  %8d  %5d  %18d  %5d  %9d", numOfThreads, i, result.getDepth(),
+					result.getElapsedMillis(), result.getNodes(), nodesPerSecond));
+			}
+		}
+	}
+	
+	/**
+	 * Plays the given moves on the gameboard, alternating between the players.
+	 * 
+	 * @param board The gameboard to play the moves on.
+	 * @param moves The moves to play.
+	 * @return The player to move next.
+	 */
+	private static Player setUpPosition(Board board, String[] moves) {
+		Player player = Player.PLAYER_ONE;
+		for (String moveString : moves) {
+			Move move = new Move();
+			move.setMove(moveString);
+			board.setMoveOnBoard(move, player);
+			player = player.getNextPlayer();
+		}
+		return player;
+	}
+}
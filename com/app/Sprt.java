@@ -0,0 +1,139 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.app;
+
+public class Sprt {
+	// The outcome of the test so far.
+	public enum Decision {
+		CONTINUE, // Not enough games have been played to decide.
+		ACCEPT_H0, // The engine is not stronger by elo1 (it is at most elo0 stronger).
+		ACCEPT_H1 // The engine is stronger by at least elo1.
+	}
+	
+	// Half a game is added to each of the wins, draws and losses, so the variance of the score is never 0.
+	private static final double PRIOR_GAMES = 0.5;
+	
+	private double scoreH0;
+	private double scoreH1;
+	private double lowerBound;
+	private double upperBound;
+	
+	private long wins;
+	private long draws;
+	private long losses;
+	
+	/**
+	 * Creates a sequential probability ratio test of whether an engine is elo1 Elo stronger (H1) rather
+	 * than elo0 Elo stronger (H0) than its opponent. Games are added one at a time and the test stops
+	 * as soon as the log-likelihood ratio crosses one of the bounds set by the error rates.
+	 * 
+	 * @param elo0 The Elo difference of H0.
+	 * @param elo1 The Elo difference of H1, larger than elo0.
+	 * @param alpha The probability of accepting H1 when H0 is true.
+	 * @param beta The probability of accepting H0 when H1 is true.
+	 */
+	public Sprt(double elo0, double elo1, double alpha, double beta) {
+		if (elo1 <= elo0) {
+			throw new IllegalArgumentException("elo1 must be larger than elo0.");
+		}
+		this.scoreH0 = expectedScore(elo0);
+		this.scoreH1 = expectedScore(elo1);
+		this.lowerBound = Math.log(beta / (1 - alpha));
+		this.upperBound = Math.log((1 - beta) / alpha);
+	}
+	
+	/**
+	 * Adds the result of a game from the point of view of the tested engine.
+	 * 
+	 * @param score 1 for a win, 0.5 for a draw and 0 for a loss.
+	 */
+	public void addResult(double score) {
+		if (score > 0.5) {
+			wins++;
+		}
+		else if (score < 0.5) {
+			losses++;
+		}
+		else {
+			draws++;
+		}
+	}
+	
+	/**
+	 * Computes the log-likelihood ratio of H1 over H0 with the normal approximation of the game scores.
+	 * 
+	 * @return The log-likelihood ratio.
+	 */
+	public double getLogLikelihoodRatio() {
+		long numOfGames = getNumOfGames();
+		if (numOfGames == 0) {
+			return 0;
+		}
+		double total = numOfGames + (3 * PRIOR_GAMES);
+		double winRate = (wins + PRIOR_GAMES) / total;
+		double drawRate = (draws + PRIOR_GAMES) / total;
+		double score = winRate + (drawRate / 2);
+		double variance = (winRate + (drawRate / 4)) - (score * score);
+		return numOfGames * (scoreH1 - scoreH0) * ((2 * score) - scoreH0 - scoreH1) / (2 * variance);
+	}
+	
+	public Decision getDecision() {
+		double logLikelihoodRatio = getLogLikelihoodRatio();
+		if (logLikelihoodRatio >= upperBound) {
+			return Decision.ACCEPT_H1;
+		}
+		if (logLikelihoodRatio <= lowerBound) {
+			return Decision.ACCEPT_H0;
+		}
+		return Decision.CONTINUE;
+	}
+	
+	/**
+	 * Estimates the Elo difference from the score of the games played so far.
+	 * 
+	 * @return The Elo difference, or infinity when every game was won or lost.
+	 */
+	public double getEloDifference() {
+		long numOfGames = getNumOfGames();
+		if (numOfGames == 0) {
+			return 0;
+		}
+		double score = (wins + (draws / 2.0)) / numOfGames;
+		return -400 * Math.log10((1 / score) - 1);
+	}
+	
+	public double getLowerBound() {
+		return lowerBound;
+	}
+	
+	public double getUpperBound() {
+		return upperBound;
+	}
+	
+	public long getWins() {
+		return wins;
+	}
+	
+	public long getDraws() {
+		return draws;
+	}
+	
+	public long getLosses() {
+		return losses;
+	}
+	
+	public long getNumOfGames() {
+		return wins + draws + losses;
+	}
+	
+	/**
+	 * Converts an Elo difference into the expected score of the stronger player.
+	 * 
+	 * @param elo The Elo difference.
+	 * @return The expected score, between 0 and 1.
+	 */
+	private static double expectedScore(double elo) {
+		return 1 / (1 + Math.pow(10, -elo / 400));
+	}
+}
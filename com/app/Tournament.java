@@ -0,0 +1,375 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.app;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.business.Board;
+import com.business.Computer;
+import com.business.GameRecord;
+import com.business.GameRecordWriter;
+import com.business.Move;
+import com.business.Player;
+
+public class Tournament {
+	// A progress line is printed every REPORT_INTERVAL games.
+	private static final int REPORT_INTERVAL = 20;
+	
+	// The longest random opening. A ladder takes 5 tokens, so no one can win before the 9th move.
+	private static final int MAX_RANDOM_OPENING_PLIES = 8;
+	
+	// The settings of the engine being tested and of its opponent.
+	private EngineSettings engine;
+	private EngineSettings opponent;
+	
+	// The maximum number of games, played in pairs with the colors swapped. The tournament stops sooner once the SPRT decides.
+	private int maxGames;
+	
+	private int numOfThreads;
+	
+	// The openings read from a file, or null to play random openings of openingPlies moves generated from the seed.
+	private List<int[]> openings;
+	private int openingPlies;
+	private long seed;
+	
+	private Sprt sprt;
+	
+	// Every game is appended to this file when set. See setRecordWriter.
+	private GameRecordWriter recordWriter;
+	
+	/**
+	 * Creates a tournament between two engines. Every opening is played twice, once with each engine moving
+	 * first, so that an opening that favors one side doesn't favor one of the engines.
+	 * 
+	 * @param engine The settings of the engine being tested.
+	 * @param opponent The settings of its opponent.
+	 * @param maxGames The maximum number of games to play.
+	 * @param numOfThreads The number of games played at once.
+	 * @param sprt The test deciding when to stop.
+	 */
+	public Tournament(EngineSettings engine, EngineSettings opponent, int maxGames, int numOfThreads, Sprt sprt) {
+		this.engine = engine;
+		this.opponent = opponent;
+		this.maxGames = maxGames;
+		this.numOfThreads = numOfThreads;
+		this.sprt = sprt;
+		this.openingPlies = 2;
+	}
+	
+	/**
+	 * Plays the openings of the given file in turn, one opening per line given as the moves played from the empty
+	 * gameboard (Ex: "G1 F1 H2"). Empty lines and lines starting with # are skipped.
+	 * 
+	 * @param path The path of the file.
+	 * @throws IOException If the file can't be read.
+	 */
+	public void readOpenings(String path) throws IOException {
+		openings = new ArrayList<int[]>();
+		for (String line : Files.readAllLines(Paths.get(path))) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			String[] moveStrings = line.split("\\s+");
+			int[] opening = new int[moveStrings.length];
+			Board board = new Board();
+			Player player = Player.PLAYER_ONE;
+			for (int i = 0; i < moveStrings.length; i++) {
+				Move move = new Move();
+				if (!move.setMove(moveStrings[i]) || !board.setMoveOnBoard(move, player)) {
+					throw new IllegalArgumentException("Invalid opening: " + line);
+				}
+				opening[i] = Move.VALID_MOVES.get(move.getMove());
+				player = player.getNextPlayer();
+			}
+			if (board.hasPlayerWon(player.getNextPlayer()) || board.isFull()) {
+				throw new IllegalArgumentException("The game is already over after the opening: " + line);
+			}
+			openings.add(opening);
+		}
+		if (openings.isEmpty()) {
+			throw new IllegalArgumentException("No openings were found in " + path);
+		}
+	}
+	
+	/**
+	 * Plays random openings of the given number of moves, which leave a game that is still going.
+	 * 
+	 * @param openingPlies The number of moves of each opening.
+	 * @param seed The seed the openings are generated from, so that a tournament can be repeated.
+	 */
+	public void setRandomOpenings(int openingPlies, long seed) {
+		if ((openingPlies < 0) || (openingPlies > MAX_RANDOM_OPENING_PLIES)) {
+			throw new IllegalArgumentException("Random openings must have from 0 to " + MAX_RANDOM_OPENING_PLIES + " moves.");
+		}
+		this.openings = null;
+		this.openingPlies = openingPlies;
+		this.seed = seed;
+	}
+	
+	/**
+	 * Records every game, with the score and time of every move, as it ends.
+	 * 
+	 * @param recordWriter The writer of the record file, or null to not record the games.
+	 */
+	public void setRecordWriter(GameRecordWriter recordWriter) {
+		this.recordWriter = recordWriter;
+	}
+	
+	/**
+	 * Plays the games on a pool of threads and prints the results as they come in, until the SPRT
+	 * decides or the maximum number of games has been played.
+	 * 
+	 * @return The decision of the SPRT.
+	 */
+	public Sprt.Decision run() {
+		ExecutorService executor = Executors.newFixedThreadPool(numOfThreads, runnable -> {
+			Thread thread = new Thread(runnable, "tournament-game");
+			thread.setDaemon(true);
+			return thread;
+		});
+		CompletionService<Double> games = new ExecutorCompletionService<Double>(executor);
+		for (int i = 0; i < maxGames; i++) {
+			int[] opening = getOpening(i / 2);
+			boolean engineMovesFirst = (i % 2) == 0;
+			games.submit(() -> playGame(engineMovesFirst? engine : opponent, engineMovesFirst? opponent : engine, opening, engineMovesFirst,
+				recordWriter));
+		}
+		
+		long startTime = System.nanoTime();
+		System.out.println(engine + " vs " + opponent + ": up to " + maxGames + " games on " + numOfThreads + " threads");
+		try {
+			for (int i = 0; (i < maxGames) && (sprt.getDecision() == Sprt.Decision.CONTINUE); i++) {
+				sprt.addResult(games.take().get());
+				if (((i + 1) % REPORT_INTERVAL) == 0) {
+					printStatus(startTime);
+				}
+			}
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException ee) {
+			throw new IllegalStateException("A game failed.", ee.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		if ((sprt.getNumOfGames() % REPORT_INTERVAL) != 0) {
+			printStatus(startTime);
+		}
+		System.out.println("SPRT: " + sprt.getDecision());
+		return sprt.getDecision();
+	}
+	
+	/**
+	 * Plays a game between two engines from the given opening.
+	 * 
+	 * @param first The settings of the engine playing PLAYER_ONE.
+	 * @param second The settings of the engine playing PLAYER_TWO.
+	 * @param opening The moves played before the engines take over.
+	 * @param engineMovesFirst Whether the tested engine is the first one.
+	 * @param recordWriter The writer the game is recorded to, or null.
+	 * @return The score of the tested engine: 1 for a win, 0.5 for a draw and 0 for a loss.
+	 */
+	private static double playGame(EngineSettings first, EngineSettings second, int[] opening, boolean engineMovesFirst,
+		GameRecordWriter recordWriter) throws IOException {
+		GameRecord record = (recordWriter != null)? new GameRecord(true, true) : null;
+		Player winner = playGame(first, second, opening, record);
+		if (record != null) {
+			recordWriter.write(record);
+		}
+		if (winner == null) {
+			return 0.5;
+		}
+		return ((winner == Player.PLAYER_ONE) == engineMovesFirst)? 1 : 0;
+	}
+	
+	/**
+	 * Plays a game between two engines from the given opening, on a gameboard of its own so that any
+	 * number of games can be played at once.
+	 * 
+	 * @param first The settings of the engine playing PLAYER_ONE.
+	 * @param second The settings of the engine playing PLAYER_TWO.
+	 * @param opening The moves played before the engines take over.
+	 * @return The winner, or null if the game is a draw.
+	 */
+	public static Player playGame(EngineSettings first, EngineSettings second, int[] opening) {
+		return playGame(first, second, opening, null);
+	}
+	
+	/**
+	 * Plays a game between two engines from the given opening and records its moves, with the score and time of
+	 * the moves of the engines.
+	 * 
+	 * @param first The settings of the engine playing PLAYER_ONE.
+	 * @param second The settings of the engine playing PLAYER_TWO.
+	 * @param opening The moves played before the engines take over.
+	 * @param record The record the moves and result are added to, or null.
+	 * @return The winner, or null if the game is a draw.
+	 */
+	public static Player playGame(EngineSettings first, EngineSettings second, int[] opening, GameRecord record) {
+		Board board = new Board();
+		Player currentPlayer = Player.PLAYER_ONE;
+		for (int move : opening) {
+			board.setMoveOnBoard(move, currentPlayer);
+			if (record != null) {
+				record.addMove(move);
+			}
+			currentPlayer = currentPlayer.getNextPlayer();
+		}
+		
+		Computer[] computers = {first.createComputer(Player.PLAYER_ONE, board), second.createComputer(Player.PLAYER_TWO, board)};
+		Player winner;
+		while (true) {
+			Computer computer = computers[currentPlayer.getIndex()];
+			computer.makeMove();
+			if (record != null) {
+				record.addMove(computer.getLastSearchResult().getMove().getIndex(), computer.getLastSearchResult().getScore(),
+					computer.getLastSearchResult().getElapsedMillis());
+			}
+			if (board.hasPlayerWon(currentPlayer)) {
+				winner = currentPlayer;
+				break;
+			}
+			if (board.isFull()) {
+				winner = null;
+				break;
+			}
+			currentPlayer = currentPlayer.getNextPlayer();
+		}
+		if (record != null) {
+			record.finish(winner);
+		}
+		return winner;
+	}
+	
+	/**
+	 * Returns the opening of the given pair of games.
+	 * 
+	 * @param pair The index of the pair of games.
+	 * @return The moves of the opening.
+	 */
+	private int[] getOpening(int pair) {
+		if (openings != null) {
+			return openings.get(pair % openings.size());
+		}
+		SplittableRandom random = new SplittableRandom(seed + pair);
+		int[] opening = new int[openingPlies];
+		long emptyCells = Board.FULL_BOARD;
+		for (int i = 0; i < openingPlies; i++) {
+			int skip = random.nextInt(Long.bitCount(emptyCells));
+			long cells = emptyCells;
+			for (int j = 0; j < skip; j++) {
+				cells &= cells - 1;
+			}
+			opening[i] = Long.numberOfTrailingZeros(cells);
+			emptyCells &= ~(0b1L << opening[i]);
+		}
+		return opening;
+	}
+	
+	private void printStatus(long startTime) {
+		long elapsedMillis = (System.nanoTime() - startTime) / 1000000;
+		System.out.println(String.format("games %d  W %d  D %d  L %d  elo %+.1f  LLR %.2f [%.2f, %.2f]  %.1f games/min",
+			sprt.getNumOfGames(), sprt.getWins(), sprt.getDraws(), sprt.getLosses(), sprt.getEloDifference(),
+			sprt.getLogLikelihoodRatio(), sprt.getLowerBound(), sprt.getUpperBound(), sprt.getNumOfGames() * 60000.0 / Math.max(elapsedMillis, 1)));
+	}
+	
+	/**
+	 * Runs a tournament from the command line, Ex:
+	 * --engine mode=PRINCIPAL_VARIATION,depth=6 --opponent depth=6 --games 2000 --threads 8 --elo0 0 --elo1 10
+	 * The other options are --openings (a file of openings), --opening-plies and --seed (for random openings),
+	 * --alpha, --beta and --record (a file every game is appended to). See EngineSettings for the engine settings.
+	 * 
+	 * @param args The options.
+	 */
+	public static void main(String[] args) throws IOException {
+		String engineSpecification = "";
+		String opponentSpecification = "";
+		int maxGames = 1000;
+		int numOfThreads = Runtime.getRuntime().availableProcessors();
+		String openingsPath = null;
+		int openingPlies = 2;
+		long seed = 1;
+		double elo0 = 0;
+		double elo1 = 5;
+		double alpha = 0.05;
+		double beta = 0.05;
+		String recordPath = null;
+		for (int i = 0; i < args.length; i += 2) {
+			if (i + 1 == args.length) {
+				throw new IllegalArgumentException("Missing value for " + args[i]);
+			}
+			String value = args[i + 1];
+			switch (args[i]) {
+			case "--engine":
+				engineSpecification = value;
+				break;
+			case "--opponent":
+				opponentSpecification = value;
+				break;
+			case "--games":
+				maxGames = Integer.parseInt(value);
+				break;
+			case "--threads":
+				numOfThreads = Integer.parseInt(value);
+				break;
+			case "--openings":
+				openingsPath = value;
+				break;
+			case "--opening-plies":
+				openingPlies = Integer.parseInt(value);
+				break;
+			case "--seed":
+				seed = Long.parseLong(value);
+				break;
+			case "--elo0":
+				elo0 = Double.parseDouble(value);
+				break;
+			case "--elo1":
+				elo1 = Double.parseDouble(value);
+				break;
+			case "--alpha":
+				alpha = Double.parseDouble(value);
+				break;
+			case "--beta":
+				beta = Double.parseDouble(value);
+				break;
+			case "--record":
+				recordPath = value;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+		
+		Tournament tournament = new Tournament(EngineSettings.parse(engineSpecification), EngineSettings.parse(opponentSpecification),
+			maxGames, numOfThreads, new Sprt(elo0, elo1, alpha, beta));
+		if (openingsPath != null) {
+			tournament.readOpenings(openingsPath);
+		}
+		else {
+			tournament.setRandomOpenings(openingPlies, seed);
+		}
+		if (recordPath == null) {
+			tournament.run();
+			return;
+		}
+		try (GameRecordWriter recordWriter = new GameRecordWriter(Paths.get(recordPath))) {
+			tournament.setRecordWriter(recordWriter);
+			tournament.run();
+		}
+	}
+}
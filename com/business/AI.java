@@ -1,20 +1,490 @@
 package com.business;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import com.business.Board;
 
-public class AI {
+public class AI implements Engine {
+	// Alpha and beta are used for alpha-beta pruning that is implemented
+	// for the minimax algorithm to decrease the number of nodes that are visited.
+	public static final int ALPHA_DEFAULT = -10000;
+	public static final int BETA_DEFAULT = 10000;
+	
+	// Scores at least this large (in absolute value) mean that one of the players has won.
+	private static final int WIN_SCORE = 100;
+	
+	// The ordering scores of the different kinds of moves. History scores are always below KILLER_MOVE_SCORE - 1.
+	private static final int HASH_MOVE_SCORE = 1 << 30;
+	private static final int WINNING_MOVE_SCORE = 1 << 29;
+	private static final int BLOCKING_MOVE_SCORE = 1 << 28;
+	private static final int KILLER_MOVE_SCORE = 1 << 27;
+	private static final int MAX_HISTORY_SCORE = (1 << 26);
+	
+	// The deepest a search can go: one ply for every cell of the gameboard, plus the leaf.
+	private static final int MAX_PLY = 50;
+	
+	// The default half-width of the aspiration window around the previous iteration's score.
+	private static final int DEFAULT_ASPIRATION_WINDOW = 3;
+	
+	// By default, quiet moves from the fourth one on are searched one level shallower when at least 3 levels are left.
+	private static final int DEFAULT_REDUCTION_MOVE_NUMBER = 3;
+	private static final int DEFAULT_REDUCTION_MIN_LEVEL = 3;
+	
+	// By default, the threat search looks for forced wins of up to 6 moves by the attacker.
+	private static final int DEFAULT_THREAT_SEARCH_MOVES = 6;
+	
+	// The search limits are only checked every NODES_PER_LIMIT_CHECK nodes to keep the clock cheap.
+	private static final int NODES_PER_LIMIT_CHECK = 1024;
+	
 	private Board board;
 	
-	// validMoves is used to store the moves from the VALID_MOVES
-	// hash map to make iterating simpler.
-	private List<String> validMoves;
+	// The moves are tried from this bit index up. Helper threads of a parallel search change it.
+	private int moveOrderRotation;
+	
+	// Caches the results of positions that have already been searched, so that positions reached
+	// again through a different order of moves don't have to be searched again.
+	private TranspositionTable transpositionTable;
+	
+	// The search algorithm, along with the aspiration window and the late move reductions that are used
+	// by the PRINCIPAL_VARIATION search. A reduction move number of 0 turns late move reductions off.
+	private SearchMode searchMode = SearchMode.ALPHA_BETA;
+	private int aspirationWindow = DEFAULT_ASPIRATION_WINDOW;
+	private int reductionMoveNumber = DEFAULT_REDUCTION_MOVE_NUMBER;
+	private int reductionMinLevel = DEFAULT_REDUCTION_MIN_LEVEL;
+	
+	// Looks for forced wins made of threats before the main search. A maximum of 0 attacker moves turns it off.
+	private ThreatSearch threatSearch;
+	private int threatSearchMoves = DEFAULT_THREAT_SEARCH_MOVES;
+	
+	// The root moves the main search may play. Moves that let the opponent force a win are left out when possible.
+	private long rootMoveMask = Board.FULL_BOARD;
+	
+	// The state of the current search: the number of nodes visited, the limits to stop at and
+	// whether the search was stopped because it ran out of its budget.
+	private long nodes;
+	private long nodeLimit;
+	private long deadline;
+	private boolean limitsEnabled;
+	private boolean stopped;
+	
+	// Set from another thread to stop the current search as soon as possible.
+	private volatile boolean stopRequested;
+	
+	// The best move found for the root of the last search.
+	private int rootBestMove;
+	
+	// The move lists of every ply, allocated once so that generating moves allocates nothing.
+	private final int[][] moveLists = new int[MAX_PLY][64];
+	private final int[][] moveScoreLists = new int[MAX_PLY][64];
+	
+	// The two most recent quiet moves of each ply that caused a cutoff, and the history score of every
+	// player and cell, which grows each time a quiet move causes a cutoff anywhere in the tree.
+	private final int[][] killerMoves = new int[MAX_PLY][2];
+	private final int[][] history = new int[2][64];
+	
+	// Whether the killer moves, history scores and principal variation are kept from one search to the next. See setStateReuse.
+	private boolean stateReuse = true;
+	
+	// Helper threads of a parallel search start from scratch every time and leave the table's generation alone.
+	private boolean helper;
+	
+	// The root of the last search: both players' tokens and the player to move. The next search only reuses the state
+	// of the last one when its root is this position with one move of each player added.
+	private long previousRootPlayerOneMoves;
+	private long previousRootPlayerTwoMoves;
+	private Player previousRootPlayer;
+	
+	// The moves the last search expects to be played from its root, and the number of plies of the current path that
+	// follow them. Where the table has no best move, the move of the principal variation is tried first.
+	private final int[] principalVariation = new int[MAX_PLY];
+	private int principalVariationLength;
+	private int principalVariationPly;
+	
+	// The number of cutoffs in the current search, and how many of them happened on the first move tried.
+	private long cutoffs;
+	private long firstMoveCutoffs;
+	
+	// The statistics of the last search. The counters inside the tree are only updated when SearchStatistics.ENABLED is set.
+	private final SearchStatistics statistics = new SearchStatistics();
 	
 	public AI (Board board) {
+		this(board, new TranspositionTable());
+	}
+	
+	public AI (Board board, TranspositionTable transpositionTable) {
 		this.board = board;
-		validMoves = new ArrayList<String>(Move.VALID_MOVES.keySet());
+		this.transpositionTable = transpositionTable;
+		this.threatSearch = new ThreatSearch(board, ThreatSearch.DEFAULT_NODE_LIMIT);
+	}
+	
+	public void setTranspositionTable(TranspositionTable transpositionTable) {
+		this.transpositionTable = transpositionTable;
+	}
+	
+	public SearchMode getSearchMode() {
+		return searchMode;
+	}
+	
+	public void setSearchMode(SearchMode searchMode) {
+		this.searchMode = searchMode;
+	}
+	
+	/**
+	 * Sets the half-width of the aspiration window of the PRINCIPAL_VARIATION search. Each iteration after the
+	 * first is searched within this distance of the previous iteration's score, and searched again with the
+	 * full window if the score falls outside of it.
+	 * 
+	 * @param aspirationWindow The half-width of the window, or 0 to always search with the full window.
+	 */
+	public void setAspirationWindow(int aspirationWindow) {
+		this.aspirationWindow = aspirationWindow;
+	}
+	
+	/**
+	 * Configures the late move reductions of the PRINCIPAL_VARIATION search. Quiet moves (moves that are not
+	 * the stored best move, a win, a block or a killer move) that come late in the move order are first
+	 * searched one level shallower, and only searched to the full depth if they turn out to be better.
+	 * 
+	 * @param reductionMoveNumber The position in the move order from which moves are reduced, or 0 for no reductions.
+	 * @param reductionMinLevel The minimum number of levels left for moves to be reduced.
+	 */
+	public void setLateMoveReductions(int reductionMoveNumber, int reductionMinLevel) {
+		this.reductionMoveNumber = reductionMoveNumber;
+		this.reductionMinLevel = reductionMinLevel;
+	}
+	
+	/**
+	 * Sets how deep the threat search looks for forced wins before the main search. A forced win of the player
+	 * to move is played right away, and root moves that let the opponent force a win are not searched.
+	 * 
+	 * @param maxAttackerMoves The maximum number of moves of the attacker in a forced win, or 0 to turn the threat search off.
+	 */
+	public void setThreatSearch(int maxAttackerMoves) {
+		this.threatSearchMoves = maxAttackerMoves;
+	}
+	
+	/**
+	 * Turns on or off the reuse of search state from one move of a game to the next. When a search starts two
+	 * plies after the root of the last one, the killer moves are shifted up by those two plies, the history scores
+	 * are halved and the rest of the principal variation, if the opponent played the expected reply, orders the
+	 * moves where the table has none. In any other position, such as in a new game or after the gameboard was
+	 * changed by other code, the state is cleared. Either way, the table ages the entries of earlier moves.
+	 * 
+	 * @param stateReuse Whether to reuse the state.
+	 */
+	public void setStateReuse(boolean stateReuse) {
+		this.stateReuse = stateReuse;
+	}
+	
+	/**
+	 * Creates a search over the given gameboard with the same settings and transposition table as this one,
+	 * so that what either search finds is used by the other.
+	 * 
+	 * @param board The gameboard of the new search.
+	 * @return The new search.
+	 */
+	AI createCopy(Board board) {
+		AI copy = new AI(board, transpositionTable);
+		copy.searchMode = searchMode;
+		copy.aspirationWindow = aspirationWindow;
+		copy.reductionMoveNumber = reductionMoveNumber;
+		copy.reductionMinLevel = reductionMinLevel;
+		copy.threatSearchMoves = threatSearchMoves;
+		copy.stateReuse = stateReuse;
+		return copy;
+	}
+	
+	/**
+	 * Creates a search over a copy of the gameboard with the same settings and transposition table
+	 * as this one, to be used by a helper thread of a parallel search.
+	 * 
+	 * @param moveOrderRotation The number of bit indices to rotate the helper's move order by.
+	 * @return The helper search.
+	 */
+	AI createHelper(int moveOrderRotation) {
+		AI helper = createCopy(new Board(board));
+		helper.moveOrderRotation = moveOrderRotation & 63;
+		helper.threatSearchMoves = 0; // The main search already runs the threat search.
+		helper.helper = true;
+		return helper;
+	}
+	
+	/**
+	 * Looks up the best move stored in the transposition table for the current position, which is the
+	 * reply the last search expected from the given player.
+	 * 
+	 * @param player The player to move.
+	 * @return The bit index of the move, or TranspositionTable.NO_MOVE if there is none.
+	 */
+	public int getPredictedMove(Player player) {
+		long entry = transpositionTable.probe(board.getCanonicalKey(player));
+		int move = (entry != 0)? TranspositionTable.getMove(entry) : TranspositionTable.NO_MOVE;
+		if (move == TranspositionTable.NO_MOVE) {
+			return TranspositionTable.NO_MOVE;
+		}
+		if (board.isCanonicalMirrored()) {
+			move = Board.mirrorCell(move);
+		}
+		return board.isMoveTaken(move)? TranspositionTable.NO_MOVE : move;
+	}
+	
+	/**
+	 * Searches for the best move with iterative deepening. The gameboard is searched to a depth of 1, 2, 3
+	 * and so on until the maximum depth is reached or the time or node budget runs out. An iteration that is
+	 * stopped part way is discarded, so the returned move is always from the deepest completed iteration.
+	 * The first iteration is always completed so that a move can be returned.
+	 * 
+	 * @param player The player to find a move for.
+	 * @param limits The depth, time and node limits of the search.
+	 * @return The best move along with the depth reached and the time taken.
+	 */
+	@Override
+	public SearchResult search(Player player, SearchLimits limits) {
+		long startTime = System.nanoTime();
+		int maxDepth = Math.min(limits.getMaxDepth(), board.getNumOfEmptyCells());
+		Move bestMove = null;
+		int depthReached = 0;
+		
+		nodes = 0;
+		stopped = false;
+		prepareSearchState(player);
+		statistics.reset();
+		deadline = (limits.getTimeBudgetMillis() > 0)? startTime + (limits.getTimeBudgetMillis() * 1000000) : Long.MAX_VALUE;
+		nodeLimit = (limits.getNodeBudget() > 0)? limits.getNodeBudget() : Long.MAX_VALUE;
+		rootMoveMask = Board.FULL_BOARD;
+		if (threatSearchMoves > 0) {
+			int forcedWin = threatSearch.findForcedWin(player, threatSearchMoves);
+			nodes += threatSearch.getNodes();
+			if (forcedWin != ThreatSearch.NOT_FOUND) {
+				int score = (player == Player.PLAYER_ONE)? WIN_SCORE : -WIN_SCORE;
+				statistics.finishSearch(nodes, threatSearch.getWinLength(), System.nanoTime() - startTime);
+				stopRequested = false;
+				principalVariationLength = 0;
+				return new SearchResult(toMove(forcedWin, score), threatSearch.getWinLength(), nodes, (System.nanoTime() - startTime) / 1000000);
+			}
+			rootMoveMask = findSafeMoves(player);
+		}
+		if (board.isSymmetric()) { // Mirrored moves lead to mirrored positions with the same score.
+			rootMoveMask &= Board.getCanonicalHalf();
+		}
+		for (int depth = 1; depth <= Math.max(maxDepth, 1); depth++) {
+			limitsEnabled = (bestMove != null);
+			int score;
+			if ((searchMode == SearchMode.PRINCIPAL_VARIATION) && (bestMove != null) && (aspirationWindow > 0)
+				&& (Math.abs(bestMove.getScore()) < WIN_SCORE)) { // Search a narrow window around the previous score first.
+				int alpha = bestMove.getScore() - aspirationWindow;
+				int beta = bestMove.getScore() + aspirationWindow;
+				score = getBestScore(player, alpha, beta, depth, 0);
+				if (!stopped && ((score <= alpha) || (score >= beta))) { // The real score is outside of the window.
+					score = getBestScore(player, ALPHA_DEFAULT, BETA_DEFAULT, depth, 0);
+				}
+			}
+			else {
+				score = getBestScore(player, ALPHA_DEFAULT, BETA_DEFAULT, depth, 0);
+			}
+			if (stopped) { // The budget ran out during this iteration.
+				break;
+			}
+			bestMove = toMove(rootBestMove, score);
+			depthReached = depth;
+			if (Math.abs(bestMove.getScore()) >= WIN_SCORE) { // The game is decided. Searching deeper won't change the outcome.
+				break;
+			}
+		}
+		statistics.finishSearch(nodes, depthReached, System.nanoTime() - startTime);
+		stopRequested = false;
+		savePrincipalVariation(player, bestMove.getIndex(), depthReached);
+		return new SearchResult(bestMove, depthReached, nodes, (System.nanoTime() - startTime) / 1000000);
+	}
+	
+	/**
+	 * Sets up the move ordering state and the table for a new search from the current gameboard. The state of the
+	 * last search is kept, shifted by two plies, when the gameboard is its root with a move of the player and then
+	 * a move of the opponent added. Otherwise it is cleared, since it belongs to another game or line of play.
+	 * 
+	 * @param player The player to move at the root.
+	 */
+	private void prepareSearchState(Player player) {
+		long playerOneMoves = board.getPlayerMoves(Player.PLAYER_ONE);
+		long playerTwoMoves = board.getPlayerMoves(Player.PLAYER_TWO);
+		long addedPlayerOneMoves = playerOneMoves & ~previousRootPlayerOneMoves;
+		long addedPlayerTwoMoves = playerTwoMoves & ~previousRootPlayerTwoMoves;
+		boolean continuesLastSearch = stateReuse && !helper && (player == previousRootPlayer)
+			&& ((previousRootPlayerOneMoves & ~playerOneMoves) == 0) && ((previousRootPlayerTwoMoves & ~playerTwoMoves) == 0)
+			&& (Long.bitCount(addedPlayerOneMoves) == 1) && (Long.bitCount(addedPlayerTwoMoves) == 1);
+		if (continuesLastSearch) {
+			shiftMoveOrdering();
+			long playedMoves = addedPlayerOneMoves | addedPlayerTwoMoves;
+			if ((principalVariationLength > 2) && (playedMoves == ((0b1L << principalVariation[0]) | (0b1L << principalVariation[1])))) {
+				principalVariationLength -= 2;
+				System.arraycopy(principalVariation, 2, principalVariation, 0, principalVariationLength);
+			}
+			else { // The opponent did not play the expected reply.
+				principalVariationLength = 0;
+			}
+		}
+		else {
+			resetMoveOrdering();
+			principalVariationLength = 0;
+		}
+		principalVariationPly = 0;
+		previousRootPlayerOneMoves = playerOneMoves;
+		previousRootPlayerTwoMoves = playerTwoMoves;
+		previousRootPlayer = player;
+		if (!helper) {
+			transpositionTable.newSearch();
+		}
+	}
+	
+	/**
+	 * Keeps the moves the search expects to be played from the root: its best move followed by the best moves stored
+	 * in the table, up to the depth that was reached.
+	 * 
+	 * @param player The player to move at the root.
+	 * @param bestMove The bit index of the best move of the search.
+	 * @param depth The depth of the last completed iteration.
+	 */
+	private void savePrincipalVariation(Player player, int bestMove, int depth) {
+		principalVariation[0] = bestMove;
+		principalVariationLength = 1;
+		board.setMoveOnBoard(bestMove, player);
+		Player playerToMove = player.getNextPlayer();
+		while ((principalVariationLength < depth) && !board.isFull() && !board.hasPlayerWon(playerToMove.getNextPlayer())) {
+			int move = getPredictedMove(playerToMove);
+			if (move == TranspositionTable.NO_MOVE) {
+				break;
+			}
+			board.setMoveOnBoard(move, playerToMove);
+			principalVariation[principalVariationLength++] = move;
+			playerToMove = playerToMove.getNextPlayer();
+		}
+		for (int i = principalVariationLength - 1; i >= 0; i--) { // Undo changes to the gameboard.
+			board.removeMoveFromBoard(principalVariation[i]);
+		}
+	}
+	
+	/**
+	 * Finds the moves after which the opponent has no forced win made of threats. If the opponent can't force a win
+	 * even when the player doesn't move, every move is safe since a token of the player never helps the opponent.
+	 * The budget of the search is checked between moves: once it runs out, the moves that weren't checked yet are
+	 * kept, so that the first iteration still has them to choose from.
+	 * 
+	 * @param player The player to move.
+	 * @return The bit literal of the safe moves, or every cell if there are no safe moves.
+	 */
+	private long findSafeMoves(Player player) {
+		Player opponent = player.getNextPlayer();
+		long safeMoves = 0;
+		int forcedWin = threatSearch.findForcedWin(opponent, threatSearchMoves);
+		nodes += threatSearch.getNodes();
+		if (forcedWin == ThreatSearch.NOT_FOUND) {
+			return Board.FULL_BOARD;
+		}
+		
+		long movesLeft = board.getEmptyCells();
+		while (movesLeft != 0) {
+			if (stopRequested || (nodes >= nodeLimit) || (System.nanoTime() >= deadline)) { // Each threat search can visit thousands of nodes.
+				safeMoves |= movesLeft;
+				break;
+			}
+			int move = Long.numberOfTrailingZeros(movesLeft);
+			movesLeft &= movesLeft - 1;
+			board.setMoveOnBoard(move, player);
+			if (board.hasPlayerWon(player) || (threatSearch.findForcedWin(opponent, threatSearchMoves) == ThreatSearch.NOT_FOUND)) {
+				safeMoves |= 0b1L << move;
+			}
+			nodes += threatSearch.getNodes();
+			board.removeMoveFromBoard(move);
+		}
+		return (safeMoves != 0)? safeMoves : Board.FULL_BOARD;
+	}
+	
+	/**
+	 * Carries the move ordering over to a search two plies below the root of the last one: the killer moves of
+	 * ply n + 2 become those of ply n, and the history scores are halved so that recent cutoffs weigh more.
+	 */
+	private void shiftMoveOrdering() {
+		for (int ply = 0; ply < MAX_PLY; ply++) {
+			for (int i = 0; i < killerMoves[ply].length; i++) {
+				killerMoves[ply][i] = (ply + 2 < MAX_PLY)? killerMoves[ply + 2][i] : TranspositionTable.NO_MOVE;
+			}
+		}
+		for (int[] historyScores : history) {
+			for (int move = 0; move < historyScores.length; move++) {
+				historyScores[move] >>= 1;
+			}
+		}
+		cutoffs = 0;
+		firstMoveCutoffs = 0;
+	}
+	
+	/**
+	 * Clears the killer moves, history scores and cutoff counters before a new search.
+	 */
+	private void resetMoveOrdering() {
+		for (int[] killers : killerMoves) {
+			Arrays.fill(killers, TranspositionTable.NO_MOVE);
+		}
+		for (int[] historyScores : history) {
+			Arrays.fill(historyScores, 0);
+		}
+		cutoffs = 0;
+		firstMoveCutoffs = 0;
+	}
+	
+	public long getCutoffs() {
+		return cutoffs;
+	}
+	
+	/**
+	 * Returns the fraction of cutoffs of the last search that happened on the first move tried. The closer
+	 * it is to 1, the better the moves are ordered.
+	 * 
+	 * @return The cutoff-on-first-move rate, or 0 if there were no cutoffs.
+	 */
+	public double getFirstMoveCutoffRate() {
+		return (cutoffs > 0)? (double) firstMoveCutoffs / cutoffs : 0;
+	}
+	
+	/**
+	 * Returns the statistics of the last search, which are overwritten by the next search. The number of nodes,
+	 * the depth and the time are always filled in, the other counters only when SearchStatistics.ENABLED is set.
+	 * 
+	 * @return The statistics of the last search.
+	 */
+	@Override
+	public SearchStatistics getStatistics() {
+		return statistics;
+	}
+	
+	/**
+	 * Asks a search running on another thread to stop. Like running out of budget, the
+	 * iteration in progress is discarded, but the first iteration is always completed.
+	 * A search that has not started yet stops after its first iteration.
+	 */
+	@Override
+	public void stop() {
+		stopRequested = true;
+	}
+	
+	public TranspositionTable getTranspositionTable() {
+		return transpositionTable;
+	}
+	
+	
+	/**
+	 * Counts a visited node and checks whether the search has run out of its budget.
+	 * 
+	 * @return Whether the search must stop.
+	 */
+	private boolean isOutOfBudget() {
+		nodes++;
+		if (limitsEnabled && !stopped) {
+			if ((nodes >= nodeLimit) || (((nodes % NODES_PER_LIMIT_CHECK) == 0) && (stopRequested || (System.nanoTime() >= deadline)))) {
+				stopped = true;
+			}
+		}
+		return stopped;
 	}
 	
 	/**
@@ -29,63 +499,346 @@ public class AI {
 	 * @return The best move so far.
 	 */
 	public Move getBestMove(Player player, int alpha, int beta, int level) {
-		Move myBestMove = new Move();
-		Move opponentBestMove = null;
-		Move tempMove = new Move();
-				
+		long startTime = System.nanoTime();
+		nodes = 0;
+		limitsEnabled = false;
+		stopped = false;
+		rootMoveMask = board.isSymmetric()? Board.getCanonicalHalf() : Board.FULL_BOARD;
+		resetMoveOrdering();
+		principalVariationLength = 0;
+		principalVariationPly = 0;
+		statistics.reset();
+		int score = getBestScore(player, alpha, beta, level, 0);
+		statistics.finishSearch(nodes, level, System.nanoTime() - startTime);
+		return toMove(rootBestMove, score);
+	}
+	
+	/**
+	 * The recursive part of getBestMove. Moves are plain bit indices and only the score is returned,
+	 * so that searching allocates no objects. The best move of the root is kept in rootBestMove.
+	 * Before searching a position, the transposition table is probed for a result that is deep enough
+	 * to be used as is. The moves are then tried in the order given by generateOrderedMoves.
+	 * 
+	 * @param player The current player to evaluate (MIN or MAX).
+	 * @param alpha The current alpha score.
+	 * @param beta The current beta score.
+	 * @param level The number of levels left to traverse.
+	 * @param ply The number of moves made since the root. A move must always be found for the root.
+	 * @return The best score so far.
+	 */
+	private int getBestScore(Player player, int alpha, int beta, int level, int ply) {
+		if (isOutOfBudget()) { // The result will be discarded.
+			return 0;
+		}
+		if (SearchStatistics.ENABLED) {
+			statistics.countPly(ply);
+		}
 		if (level == 0 || board.isFull() || board.hasPlayerWon(player.getNextPlayer())) { // We have reached the bottom. Now evaluate the gameboard.
-			tempMove = new Move();
-			tempMove.setScore(calculateCurrentScore(level));
-			return tempMove;
+			if (SearchStatistics.ENABLED) {
+				statistics.countLeafEvaluation();
+			}
+			return calculateCurrentScore(ply);
 		}
 		
+		// The table is keyed by the canonical orientation of the position, so its moves may need to be mirrored.
+		long key = board.getCanonicalKey(player);
+		boolean mirrored = board.isCanonicalMirrored();
+		long entry = transpositionTable.probe(key);
+		int hashMove = TranspositionTable.NO_MOVE;
+		if (SearchStatistics.ENABLED) {
+			statistics.countTableProbe(entry != 0);
+		}
+		if (entry != 0) {
+			hashMove = TranspositionTable.getMove(entry);
+			if (mirrored && (hashMove != TranspositionTable.NO_MOVE)) {
+				hashMove = Board.mirrorCell(hashMove);
+			}
+			if ((ply > 0) && TranspositionTable.getDepth(entry) >= level) { // The stored result is deep enough to be used.
+				int score = TranspositionTable.scoreFromTable(TranspositionTable.getScore(entry), ply);
+				int bound = TranspositionTable.getBound(entry);
+				if ((bound == TranspositionTable.EXACT) || ((bound == TranspositionTable.LOWER_BOUND) && (score >= beta))
+					|| ((bound == TranspositionTable.UPPER_BOUND) && (score <= alpha))) {
+					if (SearchStatistics.ENABLED) {
+						statistics.countTableCutoff();
+					}
+					return score;
+				}
+			}
+		}
+		if ((hashMove == TranspositionTable.NO_MOVE) && (principalVariationPly == ply) && (ply < principalVariationLength)) {
+			hashMove = principalVariation[ply];
+		}
+		int originalAlpha = alpha;
+		int originalBeta = beta;
+		int myBestMove = TranspositionTable.NO_MOVE;
+		int myBestScore = (player == Player.PLAYER_ONE)? alpha : beta;
+		
+		int[] moves = moveLists[ply];
+		int[] moveScores = moveScoreLists[ply];
+		int numOfMoves = generateOrderedMoves(player, ply, hashMove, moves, moveScores);
+		for (int i = 0; i < numOfMoves; i++) {
+			int move = pickNextMove(moves, moveScores, i, numOfMoves);
+			board.setMoveOnBoard(move, player);
+			if ((principalVariationPly == ply) && (ply < principalVariationLength) && (move == principalVariation[ply])) {
+				principalVariationPly = ply + 1; // The path still follows the principal variation.
+			}
+			int opponentBestScore;
+			if ((searchMode == SearchMode.PRINCIPAL_VARIATION) && (i > 0)) {
+				opponentBestScore = getScoutScore(player, alpha, beta, level, ply, isReducible(i, moveScores[i], level));
+			}
+			else {
+				opponentBestScore = getBestScore(player.getNextPlayer(), alpha, beta, level - 1, ply + 1); // Go a level deeper.
+			}
+			board.removeMoveFromBoard(move); // Undo changes to the gameboard.
+			principalVariationPly = Math.min(principalVariationPly, ply);
+			if (stopped) {
+				return myBestScore;
+			}
+			if ((player == Player.PLAYER_ONE) && (opponentBestScore > myBestScore)) {
+				myBestMove = move;
+				myBestScore = opponentBestScore;
+				alpha = opponentBestScore;
+			}
+			else if ((player == Player.PLAYER_TWO) && (opponentBestScore < myBestScore)) {
+				myBestMove = move;
+				myBestScore = opponentBestScore;
+				beta = opponentBestScore;
+			}
+			if (alpha >= beta) { // Prune the tree.
+				recordCutoff(player, move, moveScores[i], ply, level, i);
+				break;
+			}
+		}
+		if (ply == 0) {
+			rootBestMove = (myBestMove != TranspositionTable.NO_MOVE)? myBestMove : moves[0];
+		}
+		if (mirrored && (myBestMove != TranspositionTable.NO_MOVE)) {
+			myBestMove = Board.mirrorCell(myBestMove);
+		}
+		storeResult(key, level, ply, myBestMove, myBestScore, originalAlpha, originalBeta);
+		return myBestScore;
+	}
+	
+	/**
+	 * Searches a move that has just been set on the gameboard with a null window, which only proves whether the
+	 * move is better than the best move so far. Moves that are better are searched again with the full depth and
+	 * the full window to find their score.
+	 * 
+	 * @param player The player that made the move (MIN or MAX).
+	 * @param alpha The current alpha score.
+	 * @param beta The current beta score.
+	 * @param level The number of levels left above the move.
+	 * @param ply The number of moves made since the root, not counting the move.
+	 * @param reduced Whether the move is first searched one level shallower.
+	 * @return The score of the move, exact if it is better than the best move so far.
+	 */
+	private int getScoutScore(Player player, int alpha, int beta, int level, int ply, boolean reduced) {
+		Player opponent = player.getNextPlayer();
+		int scoutLevel = reduced? level - 2 : level - 1;
 		if (player == Player.PLAYER_ONE) {
-			myBestMove.setScore(alpha);
+			int score = getBestScore(opponent, alpha, alpha + 1, scoutLevel, ply + 1);
+			if (reduced && !stopped && (score > alpha)) {
+				score = getBestScore(opponent, alpha, alpha + 1, level - 1, ply + 1);
+			}
+			if (!stopped && (score > alpha) && (score < beta)) {
+				score = getBestScore(opponent, alpha, beta, level - 1, ply + 1);
+			}
+			return score;
 		}
-		else {
-			myBestMove.setScore(beta);
+		int score = getBestScore(opponent, beta - 1, beta, scoutLevel, ply + 1);
+		if (reduced && !stopped && (score < beta)) {
+			score = getBestScore(opponent, beta - 1, beta, level - 1, ply + 1);
 		}
-
-		for (String validMove: validMoves) { // Try all valid moves on the board.
-			tempMove.setMove(validMove);
-			if (board.setMoveOnBoard(tempMove, player)) {
-				opponentBestMove = getBestMove(player.getNextPlayer(), alpha, beta, level - 1); // Go a level deeper.
-				board.removeMoveFromBoard(tempMove); // Undo changes to the gameboard.
-				if ((player == Player.PLAYER_ONE) && ((opponentBestMove.getScore() > myBestMove.getScore()))) {
-					myBestMove.setMove(tempMove.getMove());
-					myBestMove.setScore(opponentBestMove.getScore());
-					alpha = opponentBestMove.getScore();
-				}
-				else if ((player == Player.PLAYER_TWO) && (opponentBestMove.getScore() < myBestMove.getScore())) {
-					myBestMove.setMove(tempMove.getMove());
-					myBestMove.setScore(opponentBestMove.getScore());
-					beta = opponentBestMove.getScore();
-				}
-				if (alpha >= beta) { // Prune the tree.
-					return myBestMove;
-				}
+		if (!stopped && (score < beta) && (score > alpha)) {
+			score = getBestScore(opponent, alpha, beta, level - 1, ply + 1);
+		}
+		return score;
+	}
+	
+	/**
+	 * Checks whether a move is late and quiet enough to be searched with reduced depth.
+	 * 
+	 * @param moveNumber The position of the move in the ordered move list.
+	 * @param moveScore The ordering score of the move.
+	 * @param level The number of levels left above the move.
+	 * @return Whether the move is reduced.
+	 */
+	private boolean isReducible(int moveNumber, int moveScore, int level) {
+		return (reductionMoveNumber > 0) && (moveNumber >= reductionMoveNumber) && (level >= reductionMinLevel)
+			&& (moveScore < KILLER_MOVE_SCORE - 1);
+	}
+	
+	/**
+	 * Generates every move of the given player along with an ordering score, so that the moves most likely to
+	 * cause a cutoff are tried first: the stored best move, then moves that win immediately, then moves that block
+	 * an immediate win of the opponent, then the killer moves of the ply and finally the rest of the moves by their
+	 * history score.
+	 * 
+	 * @param player The player to move.
+	 * @param ply The number of moves made since the root.
+	 * @param hashMove The best move stored in the transposition table, or NO_MOVE.
+	 * @param moves The array to fill with the bit indices of the moves.
+	 * @param moveScores The array to fill with the ordering score of each move.
+	 * @return The number of moves generated.
+	 */
+	private int generateOrderedMoves(Player player, int ply, int hashMove, int[] moves, int[] moveScores) {
+		long movesLeft = (ply == 0)? board.getEmptyCells() & rootMoveMask : board.getEmptyCells();
+		long winningMoves = board.getWinningCells(player);
+		long blockingMoves = board.getWinningCells(player.getNextPlayer());
+		int[] historyScores = history[player.getIndex()];
+		int numOfMoves = 0;
+		
+		while (movesLeft != 0) {
+			int move = nextMove(movesLeft);
+			movesLeft &= ~(0b1L << move);
+			
+			int moveScore;
+			if (move == hashMove) {
+				moveScore = HASH_MOVE_SCORE;
+			}
+			else if ((winningMoves & (0b1L << move)) != 0) {
+				moveScore = WINNING_MOVE_SCORE;
 			}
+			else if ((blockingMoves & (0b1L << move)) != 0) {
+				moveScore = BLOCKING_MOVE_SCORE;
+			}
+			else if (move == killerMoves[ply][0]) {
+				moveScore = KILLER_MOVE_SCORE;
+			}
+			else if (move == killerMoves[ply][1]) {
+				moveScore = KILLER_MOVE_SCORE - 1;
+			}
+			else {
+				moveScore = historyScores[move];
+			}
+			moves[numOfMoves] = move;
+			moveScores[numOfMoves] = moveScore;
+			numOfMoves++;
 		}
-		return myBestMove;
+		return numOfMoves;
+	}
+	
+	/**
+	 * Moves the best of the remaining moves to the given position of the move list and returns it. Since most
+	 * cutoffs happen on the first few moves, this is cheaper than sorting the whole list up front.
+	 * 
+	 * @param moves The bit indices of the moves.
+	 * @param moveScores The ordering score of each move.
+	 * @param position The position of the move list to fill.
+	 * @param numOfMoves The number of moves in the list.
+	 * @return The move at the given position.
+	 */
+	private static int pickNextMove(int[] moves, int[] moveScores, int position, int numOfMoves) {
+		int best = position;
+		for (int i = position + 1; i < numOfMoves; i++) {
+			if (moveScores[i] > moveScores[best]) {
+				best = i;
+			}
+		}
+		int move = moves[best];
+		int moveScore = moveScores[best];
+		moves[best] = moves[position];
+		moveScores[best] = moveScores[position];
+		moves[position] = move;
+		moveScores[position] = moveScore;
+		return move;
+	}
+	
+	/**
+	 * Updates the move ordering tables with a move that caused a cutoff. Quiet moves become a killer move of
+	 * the ply and their history score grows with the square of the remaining depth.
+	 * 
+	 * @param player The player that made the move.
+	 * @param move The move that caused the cutoff.
+	 * @param moveScore The ordering score the move had.
+	 * @param ply The number of moves made since the root.
+	 * @param level The number of levels left below the move.
+	 * @param moveNumber The position of the move in the ordered move list.
+	 */
+	private void recordCutoff(Player player, int move, int moveScore, int ply, int level, int moveNumber) {
+		cutoffs++;
+		if (moveNumber == 0) {
+			firstMoveCutoffs++;
+		}
+		if (SearchStatistics.ENABLED) {
+			statistics.countCutoff(moveNumber);
+		}
+		if (moveScore >= BLOCKING_MOVE_SCORE) { // The stored best move, a win or a block is always tried early.
+			return;
+		}
+		if (killerMoves[ply][0] != move) {
+			killerMoves[ply][1] = killerMoves[ply][0];
+			killerMoves[ply][0] = move;
+		}
+		int[] historyScores = history[player.getIndex()];
+		historyScores[move] = Math.min(historyScores[move] + (level * level), MAX_HISTORY_SCORE);
+	}
+	
+	/**
+	 * Picks the next move to try from the given set of empty cells. The cells are normally tried from the
+	 * lowest bit index up, but the order is rotated by moveOrderRotation.
+	 * 
+	 * @param movesLeft The bit literal of the moves that are left to try. Must not be 0.
+	 * @return The bit index of the next move.
+	 */
+	private int nextMove(long movesLeft) {
+		return (Long.numberOfTrailingZeros(Long.rotateRight(movesLeft, moveOrderRotation)) + moveOrderRotation) & 63;
+	}
+	
+	/**
+	 * Stores the result of searching a position in the transposition table along with
+	 * the type of bound the score represents for the window it was searched with.
+	 * 
+	 * @param key The Zobrist key of the position.
+	 * @param level The number of levels that were searched below the position.
+	 * @param ply The number of moves made since the root at the position.
+	 * @param bestMove The best move found, or NO_MOVE.
+	 * @param score The score of the best move.
+	 * @param alpha The alpha score the position was searched with.
+	 * @param beta The beta score the position was searched with.
+	 */
+	private void storeResult(long key, int level, int ply, int bestMove, int score, int alpha, int beta) {
+		int bound = TranspositionTable.EXACT;
+		if (score <= alpha) {
+			bound = TranspositionTable.UPPER_BOUND;
+		}
+		else if (score >= beta) {
+			bound = TranspositionTable.LOWER_BOUND;
+		}
+		transpositionTable.store(key, level, TranspositionTable.scoreToTable(score, ply), bound, bestMove);
+	}
+	
+	/**
+	 * Creates a Move object for the given bit index and score at the boundary of the search.
+	 * 
+	 * @param index The bit index of the move.
+	 * @param score The score of the move.
+	 * @return The move.
+	 */
+	private static Move toMove(int index, int score) {
+		Move move = new Move();
+		move.setIndex(index);
+		move.setScore(score);
+		return move;
 	}
 	
 	/**
-	 * This is the heuristic method. It calculates a score for the given current gameboard. The level
+	 * This is the heuristic method. It calculates a score for the given current gameboard. The ply
 	 * helps calculate a score that is related to how deep we are in the tree. The less deep the better a score
-	 * should be.
+	 * should be, so a win is worth WIN_SCORE for every ply it is closer to the root than MAX_PLY.
 	 * 
-	 * @param level The current level of the game search tree.
+	 * @param ply The number of moves made since the root.
 	 * @return
 	 */
-	private int calculateCurrentScore(int level) {
+	private int calculateCurrentScore(int ply) {
 		if (board.isFull()) { // No one has an advantage.
 			return 0;
 		}
 		if (board.hasPlayerWon(Player.PLAYER_ONE)) { // MAX has the advantage.
-			return 100 * (level + 1);
+			return WIN_SCORE * (MAX_PLY - ply);
 		}
 		if (board.hasPlayerWon(Player.PLAYER_TWO)) { // MIN has the advantage.
-			return -100 * (level + 1);
+			return -WIN_SCORE * (MAX_PLY - ply);
 		}
 		return ((board.getNumOfLadders(Player.PLAYER_ONE, 4) * 2 + board.getNumOfLadders(Player.PLAYER_ONE, 3)) - (board.getNumOfLadders(Player.PLAYER_TWO, 4) * 2 + board.getNumOfLadders(Player.PLAYER_TWO, 3)));
 	}
@@ -0,0 +1,38 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+public interface BatchEvaluator {
+	/**
+	 * Counts the live ladders of a player in every position of a batch, as Board.getNumOfLadders does for one
+	 * gameboard. The positions are given as two arrays of bit literals, so that a batch can be filled without
+	 * creating a gameboard per position. A player has won a position when its count of completed ladders is not 0.
+	 * 
+	 * @param playerMoves The bit literal of the player's tokens in every position.
+	 * @param opponentMoves The bit literal of the opponent's tokens in every position.
+	 * @param numOfPositions The number of positions, from the start of the arrays.
+	 * @param threeTokenLadders Set to the number of live ladders holding 3 of the player's tokens in every position.
+	 * @param fourTokenLadders Set to the number of live ladders holding 4 of the player's tokens in every position.
+	 * @param completedLadders Set to the number of live ladders completed by the player in every position.
+	 */
+	void evaluate(long[] playerMoves, long[] opponentMoves, int numOfPositions, int[] threeTokenLadders, int[] fourTokenLadders,
+		int[] completedLadders);
+	
+	/**
+	 * Creates the fastest evaluator available: VectorBatchEvaluator when the Java runtime was started with
+	 * --add-modules jdk.incubator.vector, and ScalarBatchEvaluator otherwise. Both give identical results.
+	 * 
+	 * @return The evaluator.
+	 */
+	static BatchEvaluator create() {
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			try { // Loaded by name, so that this interface never links to the incubator module when it is missing.
+				return (BatchEvaluator) Class.forName("com.business.VectorBatchEvaluator").getDeclaredConstructor().newInstance();
+			}
+			catch (ReflectiveOperationException | LinkageError e) {
+			}
+		}
+		return new ScalarBatchEvaluator();
+	}
+}
@@ -3,58 +3,155 @@
  */
 package com.business;
 
+import java.util.SplittableRandom;
+
 import com.business.Move;
 import com.business.Player;
 
 public class Board {
+	// The cells and ladders of the standard 7-row triangle. Board keeps the whole gameboard in a single long with
+	// tables specialized for it; MultiWordBoard plays on larger triangles.
+	private static final BoardGeometry GEOMETRY = BoardGeometry.STANDARD;
+	
+	// Every one of the 49 cells of the gameboard has a bit set in FULL_BOARD.
+	public static final long FULL_BOARD = 0b1111111111111111111111111111111111111111111111111L;
+	
+	// LADDER_MASKS holds every placement of a ladder on the gameboard, and NEUTRALIZER_MASKS holds the pair of cells
+	// that neutralizes the ladder at the same index (or 0 if that ladder can't be neutralized). Both tables are
+	// generated by BoardGeometry once when the class is loaded, so checking for a win or counting ladders never
+	// modifies any state.
+	private static final long[] LADDER_MASKS = GEOMETRY.getSingleWordLadderMasks();
+	private static final long[] NEUTRALIZER_MASKS = GEOMETRY.getSingleWordNeutralizerMasks();
+	
+	// CELL_LADDERS maps each bit index on the gameboard to the indices of every ladder that the cell belongs to,
+	// either as part of the ladder itself or as one of its neutralizing cells. Only these ladders can change
+	// state when a token is set on or removed from the cell.
+	private static final int[][] CELL_LADDERS;
+	static {
+		CELL_LADDERS = new int[GEOMETRY.getNumOfCells()][];
+		for (int cell = 0; cell < CELL_LADDERS.length; cell++) {
+			CELL_LADDERS[cell] = GEOMETRY.getCellLadders(cell);
+		}
+	}
+	
+	// ZOBRIST_KEYS holds a random key for every player and bit index on the gameboard. The Zobrist key of a
+	// gameboard is the XOR of the keys of every token set on it, plus PLAYER_TWO_TO_MOVE_KEY when player two
+	// is the one to move. A fixed seed keeps the keys identical between runs.
+	private static final long[][] ZOBRIST_KEYS;
+	private static final long PLAYER_TWO_TO_MOVE_KEY;
+	static {
+		SplittableRandom random = new SplittableRandom(0x5A0B_215EL);
+		ZOBRIST_KEYS = new long[2][GEOMETRY.getNumOfCells()];
+		for (int i = 0; i < ZOBRIST_KEYS.length; i++) {
+			for (int cell = 0; cell < ZOBRIST_KEYS[i].length; cell++) {
+				ZOBRIST_KEYS[i][cell] = random.nextLong();
+			}
+		}
+		PLAYER_TWO_TO_MOVE_KEY = random.nextLong();
+	}
+	
+	// The gameboard is symmetric around column G. MIRRORED_CELLS maps every bit index to the bit index of the cell
+	// on the other side of column G, in the same row. MIRROR_TABLE holds, for every byte of a bit literal and every
+	// value of that byte, the mirror image of those bits, so a whole gameboard is mirrored with 7 table lookups.
+	private static final int[] MIRRORED_CELLS;
+	private static final long[][] MIRROR_TABLE;
+	private static final long CANONICAL_HALF;
+	static {
+		MIRRORED_CELLS = new int[GEOMETRY.getNumOfCells()];
+		for (int cell = 0; cell < MIRRORED_CELLS.length; cell++) {
+			MIRRORED_CELLS[cell] = GEOMETRY.mirrorCell(cell);
+		}
+		
+		long canonicalHalf = 0;
+		for (int cell = 0; cell < MIRRORED_CELLS.length; cell++) {
+			if (cell <= MIRRORED_CELLS[cell]) {
+				canonicalHalf |= 0b1L << cell;
+			}
+		}
+		CANONICAL_HALF = canonicalHalf;
+		
+		MIRROR_TABLE = new long[(MIRRORED_CELLS.length + 7) / 8][256];
+		for (int byteIndex = 0; byteIndex < MIRROR_TABLE.length; byteIndex++) {
+			for (int value = 0; value < 256; value++) {
+				for (int bit = 0; bit < 8; bit++) {
+					int cell = (byteIndex * 8) + bit;
+					if (((value >> bit) & 1) == 1 && cell < MIRRORED_CELLS.length) {
+						MIRROR_TABLE[byteIndex][value] |= 0b1L << MIRRORED_CELLS[cell];
+					}
+				}
+			}
+		}
+	}
+	
 	// The first element in playerMoves is a long-bitstring representing player one's moves.
 	// The second element in playerMoves is a long-bitstring representing player two's moves.
-	private long[] playersMoves;
+	private final long[] playersMoves;
 	
-	// winningPattern1 and neutralizePattern1 hold the bit patterns that are considered a win and a neutralized situation respectively.
-	// Note: This will be explained in a report accompanied with the source files.
-	private long[] winningPattern1;
-	private long[] neutralizePattern1;
+	// Running counts, indexed by player, of the live ladders holding 3, 4 and 5 of that player's tokens. A ladder
+	// is live when the opponent has no token on it and hasn't neutralized it. The counts are kept up to date by
+	// setMoveOnBoard and removeMoveFromBoard so evaluating the gameboard never needs to rescan it.
+	private final int[] threeTokenLadders;
+	private final int[] fourTokenLadders;
+	private final int[] completedLadders;
 	
-	// winningPattern2 and neutralizePattern2 hold the bit patterns that are considered a win and a neutralized situation respectively.
-	// Note: This will be explained in a report accompanied with the source files.
-	private long[] winningPattern2;
-	private long[] neutralizePattern2;
+	// The Zobrist key of the tokens currently on the gameboard, and the Zobrist key of its mirror image. They are
+	// kept up to date by setMoveOnBoard and removeMoveFromBoard.
+	private long zobristKey;
+	private long mirroredZobristKey;
 	
 	
 	public Board() {
 		playersMoves = new long[2];
-		winningPattern1 = new long[5];
-		winningPattern2 = new long[5];
-		neutralizePattern1 = new long[3];
-		neutralizePattern2 = new long[3];	
+		threeTokenLadders = new int[2];
+		fourTokenLadders = new int[2];
+		completedLadders = new int[2];
 	}
 	
 	/**
-	 * Reinitializes all of the bit literal patterns.
+	 * Creates a copy of the given gameboard that can be changed independently of it.
+	 * 
+	 * @param board The gameboard to copy.
 	 */
-	private void initializePatterns() {
-		winningPattern1[0] = 0B1_00000000011_0000000000011L; // Left shift 8 times to check for win.
-		winningPattern1[1] = 0B1_000000011_00000000011_0000000000000L; // Left shift 6 times to check for win.
-		winningPattern1[2] = 0B1_0000011_000000011_00000000000_0000000000000L; // Left shift 4 times to check for win.
-		winningPattern1[3] = 0B1_00011_0000011_000000000_00000000000_0000000000000L; // Left shift 2 times to check for win.
-		winningPattern1[4] = 0B1_011_00011_0000000_000000000_00000000000_0000000000000L; // Use as is to check for win.
-		
-		winningPattern2[0] = 0B1_00000000110_0000000011000L; // The same number of shifts as the winningPattern1 array.
-		winningPattern2[1] = 0B1_000000110_00000011000_0000000000000L;
-		winningPattern2[2] = 0B1_0000110_000011000_00000000000_0000000000000L;
-		winningPattern2[3] = 0B1_00110_0011000_000000000_00000000000_0000000000000L;
-		winningPattern2[4] = 0B1_110_11000_0000000_000000000_00000000000_0000000000000L;
-		
-		// Only use these patterns for shift numbers between 2 and max inclusive and for winningPattern[i], where i > 0 and i < 4.
-		neutralizePattern1[0] = 0B1_000000000_00000010000_0000000000000L;
-		neutralizePattern1[1] = 0B1_0000000_000010000_00000000000_0000000000000L;
-		neutralizePattern1[2] = 0B1_00000_0010000_000000000_00000000000_0000000000000L;
-		
-		// Only use these patterns for shift numbers between 0 and max - 2 inclusive and for winningPattern[i], where i > 0 and i < 4..
-		neutralizePattern2[0] = 0B100_000000000_00000000100_0000000000000L;
-		neutralizePattern2[1] = 0B100_0000000_000000100_00000000000_0000000000000L;
-		neutralizePattern2[2] = 0B100_00000_0000100_000000000_00000000000_0000000000000L;
+	public Board(Board board) {
+		playersMoves = board.playersMoves.clone();
+		threeTokenLadders = board.threeTokenLadders.clone();
+		fourTokenLadders = board.fourTokenLadders.clone();
+		completedLadders = board.completedLadders.clone();
+		zobristKey = board.zobristKey;
+		mirroredZobristKey = board.mirroredZobristKey;
+	}
+	
+	/**
+	 * Creates a gameboard holding the given tokens, such as a position read from a file.
+	 * 
+	 * @param playerOneMoves The bit literal of player one's tokens.
+	 * @param playerTwoMoves The bit literal of player two's tokens.
+	 */
+	public Board(long playerOneMoves, long playerTwoMoves) {
+		this();
+		setPosition(playerOneMoves, playerTwoMoves);
+	}
+	
+	/**
+	 * Replaces the tokens on the gameboard with the given ones, so that one gameboard can be reused for any
+	 * number of positions.
+	 * 
+	 * @param playerOneMoves The bit literal of player one's tokens.
+	 * @param playerTwoMoves The bit literal of player two's tokens.
+	 */
+	public void setPosition(long playerOneMoves, long playerTwoMoves) {
+		if (((playerOneMoves & playerTwoMoves) != 0) || (((playerOneMoves | playerTwoMoves) & ~FULL_BOARD) != 0)) {
+			throw new IllegalArgumentException("The tokens overlap or are off the gameboard.");
+		}
+		for (long cells = ~getEmptyCells() & FULL_BOARD; cells != 0; cells &= cells - 1) {
+			removeMoveFromBoard(Long.numberOfTrailingZeros(cells));
+		}
+		for (long cells = playerOneMoves; cells != 0; cells &= cells - 1) {
+			setMoveOnBoard(Long.numberOfTrailingZeros(cells), Player.PLAYER_ONE);
+		}
+		for (long cells = playerTwoMoves; cells != 0; cells &= cells - 1) {
+			setMoveOnBoard(Long.numberOfTrailingZeros(cells), Player.PLAYER_TWO);
+		}
 	}
 	
 	/**
@@ -64,47 +161,107 @@ public class Board {
 	 * @return Whether the game has been won by the specified player.
 	 */
 	public boolean hasPlayerWon(Player player) {
-		int shiftCount = 0;
-		initializePatterns();
-		
-		for (int i = 0; i < winningPattern1.length; i++) {
-			do {
-				if (numberOfSetBits(winningPattern1[i] & playersMoves[player.getIndex()]) == 5) { // There might be a winner.
-					if (i == 0 || i == 4 || ((i > 0) && (i < 4) && (shiftCount < 2))) { // Can't be neutralized.
-						return true;
-					}
-					// Check if the winning pattern is neutralized by the other player.
-					if (numberOfSetBits(neutralizePattern1[i - 1] & playersMoves[player.getNextPlayer().getIndex()]) != 2) {
-						return true;
-					}
-				}
-				if (numberOfSetBits(winningPattern2[i] & playersMoves[player.getIndex()]) == 5) { // There might be a winner.
-					if (i == 0 || i == 4 || ((i > 0) && (i < 4) && (shiftCount > ((8 - (2 * i)) - 2)))) { // Can't be neutralized.
-						return true;
-					}
-					// Check if the winning pattern is neutralized by the other player.
-					if (numberOfSetBits(neutralizePattern2[i - 1] & playersMoves[player.getNextPlayer().getIndex()]) != 2) {
-						return true;
-					}
+		return completedLadders[player.getIndex()] > 0;
+	}
+	
+	/**
+	 * Checks whether the ladder at the given index is neutralized by the given opponent moves. Ladders
+	 * that can't be neutralized have an empty neutralizer mask and are never neutralized.
+	 * 
+	 * @param ladder The index of the ladder in LADDER_MASKS.
+	 * @param opponentMoves The bit literal of the opponent's moves.
+	 * @return Whether the ladder is neutralized.
+	 */
+	private static boolean isNeutralized(int ladder, long opponentMoves) {
+		return Long.bitCount(NEUTRALIZER_MASKS[ladder] & opponentMoves) == 2;
+	}
+	
+	/**
+	 * Returns a copy of the masks of every ladder, for code that evaluates bit literals without a gameboard.
+	 * 
+	 * @return The ladder masks.
+	 */
+	static long[] getLadderMasks() {
+		return LADDER_MASKS.clone();
+	}
+	
+	/**
+	 * Returns a copy of the neutralizer masks of every ladder, at the same indices as getLadderMasks.
+	 * 
+	 * @return The neutralizer masks, 0 for ladders that can't be neutralized.
+	 */
+	static long[] getNeutralizerMasks() {
+		return NEUTRALIZER_MASKS.clone();
+	}
+	
+	/**
+	 * Checks whether the token that was just set on the given cell completes a live ladder of its player. It works
+	 * on bare bit literals, so that playouts can check for a win without updating a gameboard.
+	 * 
+	 * @param playerMoves The bit literal of the player's moves, including the cell.
+	 * @param opponentMoves The bit literal of the opponent's moves.
+	 * @param cell The bit index of the cell.
+	 * @return Whether the player has won.
+	 */
+	static boolean completesLadder(long playerMoves, long opponentMoves, int cell) {
+		for (int ladder : CELL_LADDERS[cell]) {
+			if (((LADDER_MASKS[ladder] & ~playerMoves) == 0) && !isNeutralized(ladder, opponentMoves)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns the cells that would complete a live ladder holding 4 tokens of the player through the given cell,
+	 * which is the cell of the player's last move. Like completesLadder, it works on bare bit literals.
+	 * 
+	 * @param playerMoves The bit literal of the player's moves, including the cell.
+	 * @param opponentMoves The bit literal of the opponent's moves.
+	 * @param cell The bit index of the cell.
+	 * @return The bit literal of the winning cells.
+	 */
+	static long getWinningCellsThrough(long playerMoves, long opponentMoves, int cell) {
+		long winningCells = 0;
+		for (int ladder : CELL_LADDERS[cell]) {
+			long ladderMask = LADDER_MASKS[ladder];
+			if (((ladderMask & (0b1L << cell)) != 0) && (Long.bitCount(ladderMask & playerMoves) == 4) && ((ladderMask & opponentMoves) == 0)
+				&& !isNeutralized(ladder, opponentMoves)) {
+				winningCells |= ladderMask & ~playerMoves;
+			}
+		}
+		return winningCells;
+	}
+	
+	/**
+	 * Adds (delta = 1) or removes (delta = -1) the contribution of every ladder touching the given cell to the
+	 * running ladder counts. It is called with -1 before the cell changes and with 1 after it changes.
+	 * 
+	 * @param cell The bit index of the cell that is changing.
+	 * @param delta The amount to add to the count of each live ladder.
+	 */
+	private void updateLadderCounts(int cell, int delta) {
+		for (int ladder : CELL_LADDERS[cell]) {
+			for (int i = 0; i < playersMoves.length; i++) {
+				long opponentMoves = playersMoves[playersMoves.length - 1 - i];
+				if (((LADDER_MASKS[ladder] & opponentMoves) != 0) || isNeutralized(ladder, opponentMoves)) {
+					continue;
 				}
-				
-				// Shift the patterns over by 1 bit to check for a win at the next adjacent position.
-				winningPattern1[i] = winningPattern1[i] << 1;
-				winningPattern2[i] = winningPattern2[i] << 1;
-				if ((i != 0) && (i < 4)) {
-					if (shiftCount >= 2) {
-						neutralizePattern1[i - 1] = neutralizePattern1[i - 1] << 1;
-					}
-					if (shiftCount <= ((8 - (2 * i)) - 2)) {
-						neutralizePattern2[i - 1] = neutralizePattern2[i - 1] << 1;
-					}
+				switch (numberOfSetBits(LADDER_MASKS[ladder] & playersMoves[i])) {
+				case 3:
+					threeTokenLadders[i] += delta;
+					break;
+				case 4:
+					fourTokenLadders[i] += delta;
+					break;
+				case 5:
+					completedLadders[i] += delta;
+					break;
+				default:
+					break;
 				}
-				shiftCount++;
 			}
-			while (shiftCount <= (8 - (2 * i)));
-			shiftCount = 0;
 		}
-		return false;
 	}
 	
 	/**
@@ -116,8 +273,24 @@ public class Board {
 	 * @return A success value.
 	 */
 	public boolean setMoveOnBoard(Move move, Player player) {
-		if (!isMoveTaken(move)) {
-			playersMoves[player.getIndex()] = setBit(playersMoves[player.getIndex()], move.getIndex());
+		return setMoveOnBoard(move.getIndex(), player);
+	}
+	
+	/**
+	 * Sets the move at the specified bit index on the gameboard for the specified player and returns
+	 * a success or fail boolean value. This is the version used by the search.
+	 * 
+	 * @param index The bit index of the move to be set on the gameboard.
+	 * @param player The player to set the move for.
+	 * @return A success value.
+	 */
+	public boolean setMoveOnBoard(int index, Player player) {
+		if (!isMoveTaken(index)) {
+			updateLadderCounts(index, -1);
+			playersMoves[player.getIndex()] = setBit(playersMoves[player.getIndex()], index);
+			zobristKey ^= ZOBRIST_KEYS[player.getIndex()][index];
+			mirroredZobristKey ^= ZOBRIST_KEYS[player.getIndex()][MIRRORED_CELLS[index]];
+			updateLadderCounts(index, 1);
 			return true;
 		}
 		return false;
@@ -129,11 +302,197 @@ public class Board {
 	 * @param move The move to be removed.
 	 */
 	public void removeMoveFromBoard(Move move) {
+		removeMoveFromBoard(move.getIndex());
+	}
+	
+	/**
+	 * Removes the move at the given bit index from the board if it exists.
+	 * 
+	 * @param index The bit index of the move to be removed.
+	 */
+	public void removeMoveFromBoard(int index) {
 		for (int i = 0; i < playersMoves.length; i++) {
-			if (getBit(playersMoves[i], move.getIndex())) {
-				playersMoves[i] = unsetBit(playersMoves[i], move.getIndex());
+			if (getBit(playersMoves[i], index)) {
+				updateLadderCounts(index, -1);
+				playersMoves[i] = unsetBit(playersMoves[i], index);
+				zobristKey ^= ZOBRIST_KEYS[i][index];
+				mirroredZobristKey ^= ZOBRIST_KEYS[i][MIRRORED_CELLS[index]];
+				updateLadderCounts(index, 1);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the cells where the given player would win the game by setting a token, which are the
+	 * missing cells of the player's live ladders holding 4 tokens.
+	 * 
+	 * @param player The player to find the winning cells of.
+	 * @return The bit literal of the winning cells.
+	 */
+	public long getWinningCells(Player player) {
+		if (fourTokenLadders[player.getIndex()] == 0) {
+			return 0;
+		}
+		long playerMoves = playersMoves[player.getIndex()];
+		long opponentMoves = playersMoves[player.getNextPlayer().getIndex()];
+		long winningCells = 0;
+		for (int i = 0; i < LADDER_MASKS.length; i++) {
+			if ((numberOfSetBits(LADDER_MASKS[i] & playerMoves) == 4) && ((LADDER_MASKS[i] & opponentMoves) == 0)
+				&& !isNeutralized(i, opponentMoves)) {
+				winningCells |= LADDER_MASKS[i] & ~playerMoves;
+			}
+		}
+		return winningCells;
+	}
+	
+	/**
+	 * Returns the cells where the given player would create a threat to win by setting a token, which are the
+	 * empty cells of the player's live ladders holding 3 tokens.
+	 * 
+	 * @param player The player to find the threatening cells of.
+	 * @return The bit literal of the threatening cells.
+	 */
+	public long getThreatCells(Player player) {
+		if (threeTokenLadders[player.getIndex()] == 0) {
+			return 0;
+		}
+		long playerMoves = playersMoves[player.getIndex()];
+		long opponentMoves = playersMoves[player.getNextPlayer().getIndex()];
+		long threatCells = 0;
+		for (int i = 0; i < LADDER_MASKS.length; i++) {
+			if ((numberOfSetBits(LADDER_MASKS[i] & playerMoves) == 3) && ((LADDER_MASKS[i] & opponentMoves) == 0)
+				&& !isNeutralized(i, opponentMoves)) {
+				threatCells |= LADDER_MASKS[i] & ~playerMoves;
+			}
+		}
+		return threatCells;
+	}
+	
+	/**
+	 * Returns the cells where the opponent of the given player could stop at least one of the player's winning
+	 * cells: the missing cell of each live ladder holding 4 tokens, and the last empty neutralizing cell of such
+	 * a ladder when the opponent already holds the other one. A move that stops every winning cell of the player
+	 * is always one of these cells.
+	 * 
+	 * @param player The player whose winning cells are to be stopped.
+	 * @return The bit literal of the defending cells.
+	 */
+	public long getDefendingCells(Player player) {
+		if (fourTokenLadders[player.getIndex()] == 0) {
+			return 0;
+		}
+		long playerMoves = playersMoves[player.getIndex()];
+		long opponentMoves = playersMoves[player.getNextPlayer().getIndex()];
+		long defendingCells = 0;
+		for (int i = 0; i < LADDER_MASKS.length; i++) {
+			if ((numberOfSetBits(LADDER_MASKS[i] & playerMoves) == 4) && ((LADDER_MASKS[i] & opponentMoves) == 0)
+				&& !isNeutralized(i, opponentMoves)) {
+				defendingCells |= LADDER_MASKS[i] & ~playerMoves;
+				if (numberOfSetBits(NEUTRALIZER_MASKS[i] & opponentMoves) == 1) {
+					defendingCells |= NEUTRALIZER_MASKS[i] & ~opponentMoves & ~playerMoves;
+				}
 			}
 		}
+		return defendingCells;
+	}
+	
+	/**
+	 * Returns the bit literal of the moves the given player has set on the gameboard.
+	 * 
+	 * @param player The player whose moves are returned.
+	 * @return The player's moves.
+	 */
+	public long getPlayerMoves(Player player) {
+		return playersMoves[player.getIndex()];
+	}
+	
+	/**
+	 * Returns the bit literal of the cells that neither player has set a token on. The moves can be iterated
+	 * without allocating with Long.numberOfTrailingZeros.
+	 * 
+	 * @return The empty cells of the gameboard.
+	 */
+	public long getEmptyCells() {
+		return ~(playersMoves[Player.PLAYER_ONE.getIndex()] | playersMoves[Player.PLAYER_TWO.getIndex()]) & FULL_BOARD;
+	}
+	
+	/**
+	 * Returns the Zobrist key of the gameboard with the given player to move. Equal gameboards with the
+	 * same player to move always have equal keys.
+	 * 
+	 * @param playerToMove The player whose turn it is.
+	 * @return The Zobrist key of the position.
+	 */
+	public long getZobristKey(Player playerToMove) {
+		return (playerToMove == Player.PLAYER_TWO)? zobristKey ^ PLAYER_TWO_TO_MOVE_KEY : zobristKey;
+	}
+	
+	/**
+	 * Returns the canonical Zobrist key of the gameboard with the given player to move: the smaller of the keys
+	 * of the gameboard and of its mirror image. A position and its mirror image have the same canonical key,
+	 * so caches keyed by it store each pair of mirrored positions once.
+	 * 
+	 * @param playerToMove The player whose turn it is.
+	 * @return The canonical Zobrist key of the position.
+	 */
+	public long getCanonicalKey(Player playerToMove) {
+		long sideToMoveKey = (playerToMove == Player.PLAYER_TWO)? PLAYER_TWO_TO_MOVE_KEY : 0;
+		return Math.min(zobristKey, mirroredZobristKey) ^ sideToMoveKey;
+	}
+	
+	/**
+	 * Returns whether the canonical key of the gameboard is the key of its mirror image. Moves stored under the
+	 * canonical key must then be mirrored with mirrorCell before and after they are stored.
+	 * 
+	 * @return Whether the canonical orientation is the mirror image of the gameboard.
+	 */
+	public boolean isCanonicalMirrored() {
+		return mirroredZobristKey < zobristKey;
+	}
+	
+	/**
+	 * Returns whether the gameboard is its own mirror image, in which case mirrored moves lead to
+	 * mirrored positions and only one of each pair needs to be searched.
+	 * 
+	 * @return Whether the gameboard is symmetric.
+	 */
+	public boolean isSymmetric() {
+		return (mirror(playersMoves[Player.PLAYER_ONE.getIndex()]) == playersMoves[Player.PLAYER_ONE.getIndex()])
+			&& (mirror(playersMoves[Player.PLAYER_TWO.getIndex()]) == playersMoves[Player.PLAYER_TWO.getIndex()]);
+	}
+	
+	/**
+	 * Returns the mirror image of a bit literal of cells around column G.
+	 * 
+	 * @param bitLiteral The cells to mirror.
+	 * @return The mirrored cells.
+	 */
+	public static long mirror(long bitLiteral) {
+		long mirrored = 0;
+		for (int byteIndex = 0; byteIndex < MIRROR_TABLE.length; byteIndex++) {
+			mirrored |= MIRROR_TABLE[byteIndex][(int) (bitLiteral >>> (byteIndex * 8)) & 0xFF];
+		}
+		return mirrored;
+	}
+	
+	/**
+	 * Returns the bit index of the cell on the other side of column G, in the same row.
+	 * 
+	 * @param index The bit index of the cell.
+	 * @return The bit index of the mirrored cell.
+	 */
+	public static int mirrorCell(int index) {
+		return MIRRORED_CELLS[index];
+	}
+	
+	/**
+	 * Returns the cells that are on the left side of column G or on it. When the gameboard is symmetric,
+	 * these are the only moves that need to be searched.
+	 * 
+	 * @return The bit literal of the cells up to and including column G.
+	 */
+	public static long getCanonicalHalf() {
+		return CANONICAL_HALF;
 	}
 	
 	/**
@@ -142,12 +501,21 @@ public class Board {
 	 * @return Whether the board is full.
 	 */
 	public boolean isFull() {
-		if ((playersMoves[Player.PLAYER_ONE.getIndex()] | playersMoves[Player.PLAYER_TWO.getIndex()]) == 0b1111111111111111111111111111111111111111111111111L) {
+		if ((playersMoves[Player.PLAYER_ONE.getIndex()] | playersMoves[Player.PLAYER_TWO.getIndex()]) == FULL_BOARD) {
 			return true;
 		}
 		return false;
 	}
 	
+	/**
+	 * Returns the number of cells that neither player has set a token on.
+	 * 
+	 * @return The number of empty cells.
+	 */
+	public int getNumOfEmptyCells() {
+		return numberOfSetBits(getEmptyCells());
+	}
+	
 	/**
 	 * Determines if the given move has already been taken by either Player one or Player two.
 	 * 
@@ -155,7 +523,17 @@ public class Board {
 	 * @return Whether the move was taken or not.
 	 */
 	public boolean isMoveTaken(Move move) {
-		if (getBit(playersMoves[Player.PLAYER_ONE.getIndex()], move.getIndex()) || getBit(playersMoves[Player.PLAYER_TWO.getIndex()], move.getIndex())) {
+		return isMoveTaken(move.getIndex());
+	}
+	
+	/**
+	 * Determines if the move at the given bit index has already been taken by either Player one or Player two.
+	 * 
+	 * @param index The bit index of the move to be checked.
+	 * @return Whether the move was taken or not.
+	 */
+	public boolean isMoveTaken(int index) {
+		if (getBit(playersMoves[Player.PLAYER_ONE.getIndex()], index) || getBit(playersMoves[Player.PLAYER_TWO.getIndex()], index)) {
 			return true;
 		}
 		return false;
@@ -204,43 +582,14 @@ public class Board {
 		return Long.bitCount(bitLiteral);
 	}
 
+	/**
+	 * Prints the gameboard to the console in a single write. Games that print every move should keep one
+	 * BoardRenderer instead, which reuses its buffer and can redraw only the changed cells.
+	 */
 	public void printGameBoardToConsole() {
-		char gameBoard[] = new char[91]; // The visual representation of the game board (91 is a 7 by 13 grid).
-		String letterLabels = "ABCDEFGHIJKLM"; // These letters will be printed on the x-axis.
-		
-		for (int i = 0; i < 91; i++) { // Initialize all elements to the space character for simplicity of presenting the board.
-			gameBoard[i] = ' ';
-		}	
-		int m = 13, k = 55, bitIndex = 0;
-		for (int i = 0; i < 7; i++) {
-			for (int j = 0; j < ((2 * i) + 1); j++) {
-				bitIndex = ((((12 * i) + 6) + j) + (k - m));
-				if (getBit(playersMoves[Player.PLAYER_ONE.getIndex()], bitIndex)) {
-					gameBoard[(((12 * i) + 6) + j)] = 'o';
-				}
-				else if (getBit(playersMoves[Player.PLAYER_TWO.getIndex()], bitIndex)) {
-					gameBoard[(((12 * i) + 6) + j)] = 'x';
-				}
-				else {
-					gameBoard[(((12 * i) + 6) + j)] = '.';
-				}
-			}
-			k = k - m;
-			m += 2;
-		}		
-		for (int row = 0; row < 7; row++) { // Print out the pretty version of the game board.
-			System.out.print("\n" + (7 - row) + "  ");
-			for (int col = 0; col < 13; col++) {
-				System.out.print(gameBoard[(13 * row) + col] + "  ");
-			}
-		}
-		System.out.print("\n   ");
-		for (int i = 0; i < 13; i++) {
-			System.out.print(letterLabels.charAt(i) + "  ");
-		}
-		System.out.println("\n");
+		new BoardRenderer(System.out, false).render(this);
 	}
-
+	
 	/**
 	 * This method will count the number of partial ladders with numberOfTokens set for a specific player on the
 	 * gameboard. Only ladders that have a possibility of a win are considered. If the other player has a token set
@@ -254,45 +603,62 @@ public class Board {
 	 * @return The number of ladders on the entire gameboard.
 	 */
 	public int getNumOfLadders(Player player, int numberOfTokens) {
+		switch (numberOfTokens) { // These counts are maintained incrementally.
+		case 3:
+			return threeTokenLadders[player.getIndex()];
+		case 4:
+			return fourTokenLadders[player.getIndex()];
+		case 5:
+			return completedLadders[player.getIndex()];
+		default:
+			return countLadders(player, numberOfTokens);
+		}
+	}
+	
+	/**
+	 * Counts the ladders like getNumOfLadders, but always by scanning the entire gameboard.
+	 * 
+	 * @param player The player to be considered for the counting of ladders.
+	 * @param numberOfTokens The number of tokens that should be in a ladder.
+	 * @return The number of ladders on the entire gameboard.
+	 */
+	private int countLadders(Player player, int numberOfTokens) {
+		long playerMoves = playersMoves[player.getIndex()];
+		long opponentMoves = playersMoves[player.getNextPlayer().getIndex()];
 		int ladderCounter = 0;
-		int shiftCount = 0;
-		initializePatterns();
 		
-		for (int i = 0; i < winningPattern1.length; i++) {
-			do {
-				if ((numberOfSetBits(winningPattern1[i] & playersMoves[player.getIndex()]) == numberOfTokens) &&
-					(numberOfSetBits(winningPattern1[i] & playersMoves[player.getNextPlayer().getIndex()]) == 0)) {
-					if (i == 0 || i == 4 || ((i > 0) && (i < 4) && (shiftCount < 2))) { // Can't be neutralized.
-						ladderCounter++;
-					}
-					else if (numberOfSetBits(neutralizePattern1[i - 1] & playersMoves[player.getNextPlayer().getIndex()]) != 2) { // Check if the winning pattern is neutralized by the other player.
-						ladderCounter++;
-					}
-				}
-				if ((numberOfSetBits(winningPattern2[i] & playersMoves[player.getIndex()]) == numberOfTokens) &&
-					(numberOfSetBits(winningPattern2[i] & playersMoves[player.getNextPlayer().getIndex()]) == 0)) {
-					if (i == 0 || i == 4 || ((i > 0) && (i < 4) && (shiftCount > ((8 - (2 * i)) - 2)))) { // Can't be neutralized.
-						ladderCounter++;
-					}
-					else if (numberOfSetBits(neutralizePattern2[i - 1] & playersMoves[player.getNextPlayer().getIndex()]) != 2) { // Check if the winning pattern is neutralized by the other player.
-						ladderCounter++;
-					}
-				}
-				winningPattern1[i] = winningPattern1[i] << 1;
-				winningPattern2[i] = winningPattern2[i] << 1;
-				if ((i != 0) && (i < 4)) {
-					if (shiftCount >= 2) {
-						neutralizePattern1[i - 1] = neutralizePattern1[i - 1] << 1;
-					}
-					if (shiftCount <= ((8 - (2 * i)) - 2)) {
-						neutralizePattern2[i - 1] = neutralizePattern2[i - 1] << 1;
-					}
-				}
-				shiftCount++;
+		for (int i = 0; i < LADDER_MASKS.length; i++) {
+			if ((numberOfSetBits(LADDER_MASKS[i] & playerMoves) == numberOfTokens) &&
+				((LADDER_MASKS[i] & opponentMoves) == 0) && !isNeutralized(i, opponentMoves)) {
+				ladderCounter++;
 			}
-			while (shiftCount <= (8 - (2 * i)));
-			shiftCount = 0;
 		}
 		return ladderCounter;
 	}
+	
+	/**
+	 * Checks that the state kept up to date by setMoveOnBoard and removeMoveFromBoard (the ladder counts and the
+	 * Zobrist keys) matches the state recomputed from scratch. It is slow and meant for testing.
+	 * 
+	 * @return Whether the incremental state is consistent with the tokens on the gameboard.
+	 */
+	public boolean isConsistent() {
+		long expectedKey = 0;
+		long expectedMirroredKey = 0;
+		for (Player player : Player.values()) {
+			if ((countLadders(player, 3) != threeTokenLadders[player.getIndex()]) || (countLadders(player, 4) != fourTokenLadders[player.getIndex()])
+				|| (countLadders(player, 5) != completedLadders[player.getIndex()])) {
+				return false;
+			}
+			long moves = playersMoves[player.getIndex()];
+			while (moves != 0) {
+				int index = Long.numberOfTrailingZeros(moves);
+				moves &= moves - 1;
+				expectedKey ^= ZOBRIST_KEYS[player.getIndex()][index];
+				expectedMirroredKey ^= ZOBRIST_KEYS[player.getIndex()][MIRRORED_CELLS[index]];
+			}
+		}
+		return (expectedKey == zobristKey) && (expectedMirroredKey == mirroredZobristKey)
+			&& ((playersMoves[Player.PLAYER_ONE.getIndex()] & playersMoves[Player.PLAYER_TWO.getIndex()]) == 0);
+	}
 }
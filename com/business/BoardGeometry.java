@@ -0,0 +1,263 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class BoardGeometry {
+	// The triangle of the standard game: 7 rows and 49 cells, which fit in a single long.
+	public static final BoardGeometry STANDARD = new BoardGeometry(7);
+	
+	// The smallest triangle that holds a ladder and the largest one whose columns can be named with letters.
+	public static final int MIN_ROWS = 3;
+	public static final int MAX_ROWS = 12;
+	
+	private final int numOfRows;
+	private final int numOfColumns;
+	private final int numOfCells;
+	private final int numOfWords;
+	
+	// The bit index of the first cell of every row. Row 0 is the bottom row, which spans every column, and every row
+	// above it is one column shorter on each side.
+	private final int[] rowStarts;
+	
+	// The name of every cell (Ex: G3) by bit index, and the reverse mapping.
+	private final String[] cellNames;
+	private final Map<String, Integer> cellIndices;
+	
+	// The bit index of the cell on the other side of the middle column, in the same row.
+	private final int[] mirroredCells;
+	
+	// The bit indices of the 5 cells of every ladder, and of the 2 cells that neutralize it (none if it can't be
+	// neutralized). The masks hold the same cells as multi-word bit literals, with cell i in bit (i % 64) of word (i / 64).
+	private final int[][] ladderCells;
+	private final int[][] neutralizerCells;
+	private final long[][] ladderMasks;
+	private final long[][] neutralizerMasks;
+	
+	// The indices of every ladder that a cell belongs to, either as part of the ladder or as one of its neutralizing cells.
+	private final int[][] cellLadders;
+	
+	/**
+	 * Generates the cells and ladders of a triangular gameboard with the given number of rows. A ladder is a staircase
+	 * of 5 cells over 3 rows: 2 cells in its bottom row, the 2 cells one column over in the middle row and 1 more cell
+	 * one column over in its top row, climbing either to the right or to the left. Except on the bottom row of the
+	 * gameboard, a ladder is neutralized by the cell continuing its bottom pair and the cell on the other side of its
+	 * top cell, 2 columns away from it, when both are on the gameboard.
+	 * 
+	 * @param numOfRows The number of rows, from MIN_ROWS to MAX_ROWS.
+	 */
+	public BoardGeometry(int numOfRows) {
+		if ((numOfRows < MIN_ROWS) || (numOfRows > MAX_ROWS)) {
+			throw new IllegalArgumentException("The number of rows must be between " + MIN_ROWS + " and " + MAX_ROWS + ".");
+		}
+		this.numOfRows = numOfRows;
+		this.numOfColumns = (2 * numOfRows) - 1;
+		this.numOfCells = numOfRows * numOfRows;
+		this.numOfWords = (numOfCells + 63) / 64;
+		
+		rowStarts = new int[numOfRows];
+		cellNames = new String[numOfCells];
+		cellIndices = new HashMap<String, Integer>();
+		mirroredCells = new int[numOfCells];
+		for (int row = 0; row < numOfRows; row++) {
+			rowStarts[row] = (row == 0)? 0 : rowStarts[row - 1] + getRowLength(row - 1);
+			for (int column = row; column < numOfColumns - row; column++) {
+				int cell = getCellIndex(row, column);
+				cellNames[cell] = (char) ('A' + column) + Integer.toString(row + 1);
+				cellIndices.put(cellNames[cell], cell);
+				mirroredCells[cell] = getCellIndex(row, numOfColumns - 1 - column);
+			}
+		}
+		
+		// For every bottom row and every position along it, the ladder climbing to the right and then the one climbing
+		// to the left. The standard gameboard has relied on this order since its ladders were written out by hand.
+		int numOfLadders = 0;
+		for (int row = 0; row + 2 < numOfRows; row++) {
+			numOfLadders += 2 * getRowLength(row + 2);
+		}
+		ladderCells = new int[numOfLadders][];
+		neutralizerCells = new int[numOfLadders][];
+		int ladder = 0;
+		for (int row = 0; row + 2 < numOfRows; row++) {
+			for (int column = row + 2; column < numOfColumns - row - 2; column++) {
+				int left = column - 2; // The bottom-left cell of the ladder climbing to the right.
+				ladderCells[ladder] = new int[] {getCellIndex(row, left), getCellIndex(row, left + 1), getCellIndex(row + 1, left + 1),
+					getCellIndex(row + 1, left + 2), getCellIndex(row + 2, left + 2)};
+				neutralizerCells[ladder] = ((row > 0) && isOnBoard(row + 2, left))?
+					new int[] {getCellIndex(row, left + 2), getCellIndex(row + 2, left)} : new int[0];
+				ladder++;
+				
+				int top = column; // The top cell of the ladder climbing to the left.
+				ladderCells[ladder] = new int[] {getCellIndex(row + 2, top), getCellIndex(row + 1, top), getCellIndex(row + 1, top + 1),
+					getCellIndex(row, top + 1), getCellIndex(row, top + 2)};
+				neutralizerCells[ladder] = ((row > 0) && isOnBoard(row + 2, top + 2))?
+					new int[] {getCellIndex(row, top), getCellIndex(row + 2, top + 2)} : new int[0];
+				ladder++;
+			}
+		}
+		
+		ladderMasks = new long[numOfLadders][];
+		neutralizerMasks = new long[numOfLadders][];
+		int[][] ladderIndicesByCell = new int[numOfCells][numOfLadders];
+		int[] numOfLaddersByCell = new int[numOfCells];
+		for (ladder = 0; ladder < numOfLadders; ladder++) {
+			ladderMasks[ladder] = toMask(ladderCells[ladder]);
+			neutralizerMasks[ladder] = toMask(neutralizerCells[ladder]);
+			for (int cell = 0; cell < numOfCells; cell++) {
+				if (((ladderMasks[ladder][cell / 64] | neutralizerMasks[ladder][cell / 64]) & (0b1L << cell)) != 0) {
+					ladderIndicesByCell[cell][numOfLaddersByCell[cell]++] = ladder;
+				}
+			}
+		}
+		cellLadders = new int[numOfCells][];
+		for (int cell = 0; cell < numOfCells; cell++) {
+			cellLadders[cell] = Arrays.copyOf(ladderIndicesByCell[cell], numOfLaddersByCell[cell]);
+		}
+	}
+	
+	private int getRowLength(int row) {
+		return numOfColumns - (2 * row);
+	}
+	
+	private boolean isOnBoard(int row, int column) {
+		return (row >= 0) && (row < numOfRows) && (column >= row) && (column < numOfColumns - row);
+	}
+	
+	/**
+	 * Converts cells into a multi-word bit literal.
+	 * 
+	 * @param cells The bit indices of the cells.
+	 * @return The bit literal, with numOfWords words.
+	 */
+	private long[] toMask(int[] cells) {
+		long[] mask = new long[numOfWords];
+		for (int cell : cells) {
+			mask[cell / 64] |= 0b1L << cell;
+		}
+		return mask;
+	}
+	
+	public int getNumOfRows() {
+		return numOfRows;
+	}
+	
+	public int getNumOfColumns() {
+		return numOfColumns;
+	}
+	
+	public int getNumOfCells() {
+		return numOfCells;
+	}
+	
+	/**
+	 * Returns the number of longs a bit literal of the gameboard takes: 1 up to 8 rows (64 cells), 2 or 3 beyond.
+	 * 
+	 * @return The number of words.
+	 */
+	public int getNumOfWords() {
+		return numOfWords;
+	}
+	
+	public int getNumOfLadders() {
+		return ladderCells.length;
+	}
+	
+	/**
+	 * Returns the bit index of the cell in the given row and column, counted from 0 at the bottom left corner.
+	 * 
+	 * @param row The row of the cell.
+	 * @param column The column of the cell.
+	 * @return The bit index of the cell.
+	 */
+	public int getCellIndex(int row, int column) {
+		if (!isOnBoard(row, column)) {
+			throw new IllegalArgumentException("There is no cell in row " + row + " and column " + column + ".");
+		}
+		return rowStarts[row] + (column - row);
+	}
+	
+	/**
+	 * Returns the bit index of the cell with the given name.
+	 * 
+	 * @param cellName The name of the cell (Ex: G3).
+	 * @return The bit index of the cell, or -1 if there is no such cell.
+	 */
+	public int getCellIndex(String cellName) {
+		Integer cell = cellIndices.get(cellName);
+		return (cell == null)? -1 : cell;
+	}
+	
+	/**
+	 * Returns the name of the cell at the given bit index, its column letter followed by its row number (Ex: G3).
+	 * 
+	 * @param cell The bit index of the cell.
+	 * @return The name of the cell.
+	 */
+	public String getCellName(int cell) {
+		return cellNames[cell];
+	}
+	
+	public int mirrorCell(int cell) {
+		return mirroredCells[cell];
+	}
+	
+	public int[] getLadderCells(int ladder) {
+		return ladderCells[ladder].clone();
+	}
+	
+	public int[] getNeutralizerCells(int ladder) {
+		return neutralizerCells[ladder].clone();
+	}
+	
+	public long[] getLadderMask(int ladder) {
+		return ladderMasks[ladder].clone();
+	}
+	
+	public long[] getNeutralizerMask(int ladder) {
+		return neutralizerMasks[ladder].clone();
+	}
+	
+	/**
+	 * Returns the indices of every ladder the given cell belongs to, either as part of the ladder or as one of its
+	 * neutralizing cells. Only these ladders can change state when a token is set on or removed from the cell.
+	 * 
+	 * @param cell The bit index of the cell.
+	 * @return The indices of the ladders.
+	 */
+	public int[] getCellLadders(int cell) {
+		return cellLadders[cell].clone();
+	}
+	
+	/**
+	 * Returns the masks of every ladder as single-word bit literals, for gameboards that fit in a long.
+	 * 
+	 * @return The ladder masks.
+	 */
+	public long[] getSingleWordLadderMasks() {
+		return toSingleWords(ladderMasks);
+	}
+	
+	/**
+	 * Returns the neutralizer masks of every ladder as single-word bit literals, for gameboards that fit in a long.
+	 * 
+	 * @return The neutralizer masks, 0 for ladders that can't be neutralized.
+	 */
+	public long[] getSingleWordNeutralizerMasks() {
+		return toSingleWords(neutralizerMasks);
+	}
+	
+	private long[] toSingleWords(long[][] masks) {
+		if (numOfWords != 1) {
+			throw new IllegalStateException("A gameboard of " + numOfRows + " rows doesn't fit in a long.");
+		}
+		long[] singleWords = new long[masks.length];
+		for (int i = 0; i < masks.length; i++) {
+			singleWords[i] = masks[i][0];
+		}
+		return singleWords;
+	}
+}
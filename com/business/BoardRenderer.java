@@ -0,0 +1,161 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+public class BoardRenderer {
+	// The characters of the cells: empty, player one's token and player two's token.
+	private static final byte EMPTY_CELL = '.';
+	private static final byte PLAYER_ONE_CELL = 'o';
+	private static final byte PLAYER_TWO_CELL = 'x';
+	
+	// The escape sequences of the in-place redraw: clear the screen, save and restore the cursor and reset the
+	// scrolling region to the whole screen.
+	private static final String CLEAR_SCREEN = "\033[2J\033[H";
+	private static final String SAVE_CURSOR = "\0337";
+	private static final String RESTORE_CURSOR = "\0338";
+	private static final String RESET_SCROLLING_REGION = "\033[r";
+	
+	private static final BoardGeometry GEOMETRY = BoardGeometry.STANDARD;
+	
+	private final PrintStream out;
+	private final boolean ansi;
+	
+	// The whole frame, laid out once with every cell empty and, with ANSI escape sequences, the sequences that
+	// clear the screen before it and set the scrolling region after it. Rendering only overwrites the cell characters, at the
+	// offsets in cellOffsets, and writes the buffer with a single call.
+	private final byte[] frame;
+	private final int[] cellOffsets;
+	
+	// The screen line and column (both from 1) of every cell, for the in-place redraw.
+	private final int[] cellLines;
+	private final int[] cellColumns;
+	
+	// The buffer the escape sequences of an in-place redraw are built in, reused from move to move.
+	private final StringBuilder redraw = new StringBuilder();
+	
+	// The tokens drawn by the last frame, and whether a frame was drawn yet.
+	private long drawnPlayerOneMoves;
+	private long drawnPlayerTwoMoves;
+	private boolean hasDrawn;
+	
+	/**
+	 * Creates a renderer of the gameboard. Every frame is built in one buffer and written with a single call. With
+	 * ANSI escape sequences, the first frame is drawn at the top of a cleared screen and every later frame only
+	 * redraws the cells that changed, while the rest of the output scrolls below the gameboard.
+	 * 
+	 * @param out The stream to render to.
+	 * @param ansi Whether the terminal understands ANSI escape sequences.
+	 */
+	public BoardRenderer(PrintStream out, boolean ansi) {
+		this.out = out;
+		this.ansi = ansi;
+		
+		// The same layout as the gameboard has always been printed with: the rows from the top down, each cell
+		// followed by 2 spaces, and the column letters below.
+		StringBuilder layout = new StringBuilder(ansi? CLEAR_SCREEN : "");
+		cellOffsets = new int[GEOMETRY.getNumOfCells()];
+		cellLines = new int[GEOMETRY.getNumOfCells()];
+		cellColumns = new int[GEOMETRY.getNumOfCells()];
+		int line = 1;
+		for (int row = GEOMETRY.getNumOfRows() - 1; row >= 0; row--) {
+			layout.append('\n').append(row + 1).append("  ");
+			line++;
+			int lineStart = layout.length();
+			for (int column = 0; column < GEOMETRY.getNumOfColumns(); column++) {
+				if ((column >= row) && (column < GEOMETRY.getNumOfColumns() - row)) {
+					int cell = GEOMETRY.getCellIndex(row, column);
+					cellOffsets[cell] = layout.length();
+					cellLines[cell] = line;
+					cellColumns[cell] = (layout.length() - lineStart) + 4;
+					layout.append((char) EMPTY_CELL);
+				}
+				else {
+					layout.append(' ');
+				}
+				layout.append("  ");
+			}
+		}
+		layout.append("\n   ");
+		for (int column = 0; column < GEOMETRY.getNumOfColumns(); column++) {
+			layout.append((char) ('A' + column)).append("  ");
+		}
+		layout.append("\n\n");
+		int numOfFrameLines = line + 2;
+		if (ansi) { // Keep the gameboard at the top of the screen and scroll the rest of the output below it.
+			layout.append("\033[").append(numOfFrameLines + 1).append(";r\033[").append(numOfFrameLines + 1).append(";1H");
+		}
+		frame = layout.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+	
+	/**
+	 * Renders the gameboard: the whole frame the first time and, with ANSI escape sequences, only the cells that
+	 * changed since the last frame afterwards.
+	 * 
+	 * @param board The gameboard to render.
+	 */
+	public void render(Board board) {
+		long playerOneMoves = board.getPlayerMoves(Player.PLAYER_ONE);
+		long playerTwoMoves = board.getPlayerMoves(Player.PLAYER_TWO);
+		if (ansi && hasDrawn) {
+			redrawChangedCells(playerOneMoves, playerTwoMoves);
+		}
+		else {
+			for (int cell = 0; cell < cellOffsets.length; cell++) {
+				frame[cellOffsets[cell]] = getCellCharacter(cell, playerOneMoves, playerTwoMoves);
+			}
+			out.write(frame, 0, frame.length);
+			hasDrawn = true;
+		}
+		out.flush();
+		drawnPlayerOneMoves = playerOneMoves;
+		drawnPlayerTwoMoves = playerTwoMoves;
+	}
+	
+	/**
+	 * Moves the cursor to every cell that changed since the last frame and redraws it, then puts the cursor back
+	 * where the rest of the output was.
+	 * 
+	 * @param playerOneMoves The bit literal of player one's tokens.
+	 * @param playerTwoMoves The bit literal of player two's tokens.
+	 */
+	private void redrawChangedCells(long playerOneMoves, long playerTwoMoves) {
+		long changedCells = (playerOneMoves ^ drawnPlayerOneMoves) | (playerTwoMoves ^ drawnPlayerTwoMoves);
+		if (changedCells == 0) {
+			return;
+		}
+		redraw.setLength(0);
+		redraw.append(SAVE_CURSOR);
+		for (; changedCells != 0; changedCells &= changedCells - 1) {
+			int cell = Long.numberOfTrailingZeros(changedCells);
+			redraw.append("\033[").append(cellLines[cell]).append(';').append(cellColumns[cell]).append('H')
+				.append((char) getCellCharacter(cell, playerOneMoves, playerTwoMoves));
+		}
+		redraw.append(RESTORE_CURSOR);
+		out.print(redraw);
+	}
+	
+	private static byte getCellCharacter(int cell, long playerOneMoves, long playerTwoMoves) {
+		if ((playerOneMoves & (0b1L << cell)) != 0) {
+			return PLAYER_ONE_CELL;
+		}
+		if ((playerTwoMoves & (0b1L << cell)) != 0) {
+			return PLAYER_TWO_CELL;
+		}
+		return EMPTY_CELL;
+	}
+	
+	/**
+	 * Gives the whole screen back to the output scrolling below the gameboard. It does nothing without ANSI
+	 * escape sequences.
+	 */
+	public void close() {
+		if (ansi && hasDrawn) {
+			out.print(RESET_SCROLLING_REGION);
+			out.flush();
+		}
+	}
+}
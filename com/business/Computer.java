@@ -3,31 +3,500 @@
  */
 package com.business;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 public class Computer {
 	// The number of levels in the search tree to generate. The number simply represents
 	// how many moves ahead will be looked at and evaluated.
 	private static final int NUM_OF_LEVELS = 4;
 	
-	// Alpha and beta are used for alpha-beta pruning that is implemented
-	// for the minimax algorithm to decrease the number of nodes that are visited.
-	private static final int ALPHA_DEFAULT = -10000;
-	private static final int BETA_DEFAULT = 10000;
+	// The endgame solver takes over once this many cells or fewer are empty. See setEndgameThreshold.
+	public static final int DEFAULT_ENDGAME_THRESHOLD = 18;
+	
+	// The time budget of a solve when the moves have neither a time nor a node budget. When they have one, the
+	// solve gets half of each budget they have.
+	private static final long DEFAULT_ENDGAME_TIME_MILLIS = 2000;
+	
+	// The score of a won position, as in AI.
+	private static final int WIN_SCORE = 100;
 	
 	private Player player;
 	private Board board;
 	private AI aILogic;
 	
+	// The engine that makes the moves: aILogic, parallelSearch or monteCarloSearch. See setEngineType and setSearchThreads.
+	private Engine engine;
+	private EngineType engineType = EngineType.MINIMAX;
+	private int numOfThreads = 1;
+	
+	// Searches with more than one thread when set. See setSearchThreads.
+	private ParallelSearch parallelSearch;
+	
+	// Searches by Monte Carlo tree search when set. See setEngineType.
+	private MonteCarloSearch monteCarloSearch;
+	
+	// Plays the first moves of the game without searching when set. See setOpeningBook.
+	private OpeningBook openingBook;
+	
+	// Solves the position exactly once few cells are empty. It is only created once the endgame is reached.
+	private EndgameSolver endgameSolver;
+	private int endgameThreshold = DEFAULT_ENDGAME_THRESHOLD;
+	
+	// The depth, time and node limits of every move. By default the search goes NUM_OF_LEVELS deep
+	// with no time or node budget.
+	private SearchLimits searchLimits;
+	
+	// The result and statistics of the last call to makeMove.
+	private SearchResult lastSearchResult;
+	private SearchStatistics lastSearchStatistics;
+	
+	// Whether to search on the opponent's time. See startPondering.
+	private boolean pondering;
+	
+	// Runs the search on the opponent's time. It is only created once pondering starts.
+	private ExecutorService ponderExecutor;
+	
+	// The search running on the opponent's time and its result. When ponderingPrediction is set, it searches the
+	// position after the predicted reply of the opponent, whose Zobrist key (with this player to move) is ponderKey.
+	private AI ponderSearch;
+	private Future<SearchResult> ponderResult;
+	private boolean ponderingPrediction;
+	private long ponderKey;
+	
+	// The number of moves for which the opponent played the predicted reply, and for which they did not.
+	private long ponderHits;
+	private long ponderMisses;
+	
 	public Computer(Player player, Board board) {
+		this(player, board, new TranspositionTable());
+	}
+	
+	/**
+	 * Creates a computer player that searches with the given transposition table, for example one with
+	 * a smaller memory budget when many games are played at once.
+	 * 
+	 * @param player The player to make moves for.
+	 * @param board The gameboard to play on.
+	 * @param transpositionTable The table used by the search.
+	 */
+	public Computer(Player player, Board board, TranspositionTable transpositionTable) {
 		this.player = player;
 		this.board = board;
-		aILogic = new AI(board);
+		aILogic = new AI(board, transpositionTable);
+		engine = aILogic;
+		searchLimits = new SearchLimits(NUM_OF_LEVELS);
+	}
+	
+	/**
+	 * Replaces the transposition table used by the search, for example to change its
+	 * memory budget or replacement policy.
+	 * 
+	 * @param transpositionTable The table to be used from the next move onward.
+	 */
+	public void setTranspositionTable(TranspositionTable transpositionTable) {
+		aILogic.setTranspositionTable(transpositionTable);
+	}
+	
+	/**
+	 * Sets the deepest iteration that will be searched. To search only by time or nodes, set
+	 * this to Integer.MAX_VALUE along with a budget.
+	 * 
+	 * @param maxDepth The maximum number of levels to search.
+	 */
+	public void setMaxDepth(int maxDepth) {
+		searchLimits.setMaxDepth(maxDepth);
+	}
+	
+	/**
+	 * Sets the time budget of every move. The deepest iteration completed within the budget is played.
+	 * 
+	 * @param timeBudgetMillis The time budget in milliseconds, or 0 for no time limit.
+	 */
+	public void setMoveTimeBudget(long timeBudgetMillis) {
+		searchLimits.setTimeBudgetMillis(timeBudgetMillis);
+	}
+	
+	/**
+	 * Sets the node budget of every move. The deepest iteration completed within the budget is played.
+	 * 
+	 * @param nodeBudget The maximum number of positions to visit, or 0 for no node limit.
+	 */
+	public void setNodeBudget(long nodeBudget) {
+		searchLimits.setNodeBudget(nodeBudget);
+	}
+	
+	/**
+	 * Sets the number of threads used to search every move. With more than one thread, helper threads
+	 * search their own copies of the gameboard and share results through the transposition table. With
+	 * one thread, the search runs on the calling thread only and is deterministic.
+	 * 
+	 * @param numOfThreads The number of threads to search with.
+	 */
+	public void setSearchThreads(int numOfThreads) {
+		this.numOfThreads = numOfThreads;
+		createEngine();
+	}
+	
+	/**
+	 * Selects the engine that makes the moves. The MONTE_CARLO engine uses the time budget and takes the
+	 * node budget as its number of iterations. Without either, it runs MonteCarloSearch.DEFAULT_ITERATIONS.
+	 * 
+	 * @param engineType The engine to use from the next move onward.
+	 */
+	public void setEngineType(EngineType engineType) {
+		this.engineType = engineType;
+		createEngine();
+	}
+	
+	public EngineType getEngineType() {
+		return engineType;
+	}
+	
+	/**
+	 * Creates the engine for the selected engine type and number of threads, shutting down the threads of the previous one.
+	 */
+	private void createEngine() {
+		stopPondering();
+		if (parallelSearch != null) {
+			parallelSearch.shutdown();
+			parallelSearch = null;
+		}
+		if (monteCarloSearch != null) {
+			monteCarloSearch.shutdown();
+			monteCarloSearch = null;
+		}
+		if (engineType == EngineType.MONTE_CARLO) {
+			monteCarloSearch = new MonteCarloSearch(board, numOfThreads, MonteCarloSearch.DEFAULT_MAX_NODES);
+			engine = monteCarloSearch;
+		}
+		else if (numOfThreads > 1) {
+			parallelSearch = new ParallelSearch(board, aILogic, numOfThreads);
+			engine = parallelSearch;
+		}
+		else {
+			engine = aILogic;
+		}
+	}
+	
+	/**
+	 * Selects the search algorithm, so that the algorithms can be compared against each other.
+	 * 
+	 * @param searchMode The search algorithm to use from the next move onward.
+	 */
+	public void setSearchMode(SearchMode searchMode) {
+		aILogic.setSearchMode(searchMode);
+	}
+	
+	/**
+	 * Configures the late move reductions of the PRINCIPAL_VARIATION search mode.
+	 * 
+	 * @param reductionMoveNumber The position in the move order from which quiet moves are reduced, or 0 for no reductions.
+	 * @param reductionMinLevel The minimum number of levels left for moves to be reduced.
+	 */
+	public void setLateMoveReductions(int reductionMoveNumber, int reductionMinLevel) {
+		aILogic.setLateMoveReductions(reductionMoveNumber, reductionMinLevel);
+	}
+	
+	/**
+	 * Sets how deep the threat search looks for forced wins before the main search.
+	 * 
+	 * @param maxAttackerMoves The maximum number of moves of the attacker in a forced win, or 0 to turn the threat search off.
+	 */
+	public void setThreatSearch(int maxAttackerMoves) {
+		aILogic.setThreatSearch(maxAttackerMoves);
+	}
+	
+	/**
+	 * Turns on or off the reuse of the killer moves, history scores and principal variation of the last move's
+	 * search (see AI.setStateReuse). It is on by default.
+	 * 
+	 * @param stateReuse Whether to reuse the state.
+	 */
+	public void setStateReuse(boolean stateReuse) {
+		aILogic.setStateReuse(stateReuse);
+	}
+	
+	/**
+	 * Sets the opening book to play from. While the position is in the book, its move is played without
+	 * searching. The book can be shared by any number of computers.
+	 * 
+	 * @param openingBook The opening book, or null to always search.
+	 */
+	public void setOpeningBook(OpeningBook openingBook) {
+		this.openingBook = openingBook;
+	}
+	
+	/**
+	 * Sets the number of empty cells at which the endgame solver takes over from the engine. From then on, won and
+	 * drawn positions are played perfectly, as long as the solver finishes within its time budget.
+	 * 
+	 * @param endgameThreshold The maximum number of empty cells to solve, or 0 to never use the solver.
+	 */
+	public void setEndgameThreshold(int endgameThreshold) {
+		this.endgameThreshold = endgameThreshold;
+	}
+	
+	/**
+	 * Turns searching on the opponent's time on or off. See startPondering.
+	 * 
+	 * @param pondering Whether to ponder.
+	 */
+	public void setPondering(boolean pondering) {
+		stopPondering();
+		this.pondering = pondering;
+	}
+	
+	public long getPonderHits() {
+		return ponderHits;
+	}
+	
+	public long getPonderMisses() {
+		return ponderMisses;
+	}
+	
+	public Player getPlayer() {
+		return player;
+	}
+	
+	/**
+	 * Returns the result of the last move, including the depth that was reached and the time it took.
+	 * 
+	 * @return The last search result, or null if no move has been made yet.
+	 */
+	public SearchResult getLastSearchResult() {
+		return lastSearchResult;
 	}
 	
 	/**
-	 * Generates the best possible move for the NUM_OF_LEVELS.
+	 * Returns the statistics of the last move, with the counters of every search thread.
+	 * 
+	 * @return The statistics of the last search.
+	 */
+	public SearchStatistics getLastSearchStatistics() {
+		return lastSearchStatistics;
+	}
+	
+	/**
+	 * Generates the best possible move within the search limits using iterative deepening, or from the opening
+	 * book, or with the endgame solver once few enough cells are empty. When statistics are enabled, those of the search are added to the totals of the SearchMonitor.
 	 */
 	public void makeMove() {
-			Move move = aILogic.getBestMove(player, ALPHA_DEFAULT, BETA_DEFAULT, NUM_OF_LEVELS);
-			board.setMoveOnBoard(move, player);
+			long startTime = System.nanoTime();
+			Engine search = engine;
+			lastSearchResult = null;
+			if (ponderResult != null) {
+				if (ponderingPrediction && (ponderKey == board.getZobristKey(player))) { // The opponent played the predicted reply.
+					ponderHits++;
+					lastSearchResult = finishPonderHit(startTime);
+					if (lastSearchResult != null) {
+						search = ponderSearch;
+					}
+				}
+				else {
+					ponderMisses++;
+				}
+				stopPondering();
+			}
+			if ((lastSearchResult == null) && (openingBook != null)) {
+				lastSearchResult = probeOpeningBook(startTime);
+				if (lastSearchResult != null) {
+					search = null;
+				}
+			}
+			long solveNodes = 0;
+			if ((lastSearchResult == null) && (board.getNumOfEmptyCells() <= endgameThreshold)) {
+				lastSearchResult = solveEndgame(startTime);
+				solveNodes = endgameSolver.getNodes();
+				if (lastSearchResult != null) {
+					search = null;
+				}
+			}
+			if (lastSearchResult == null) {
+				lastSearchResult = engine.search(player, getRemainingLimits(startTime, solveNodes));
+			}
+			if (search != null) {
+				lastSearchStatistics = search.getStatistics();
+			}
+			if (SearchStatistics.ENABLED) {
+				SearchMonitor.getInstance().record(lastSearchStatistics);
+			}
+			board.setMoveOnBoard(lastSearchResult.getMove(), player);
+	}
+	
+	/**
+	 * Starts searching on the opponent's time. It is meant to be called right after this computer's move, while
+	 * the opponent thinks. If the last search predicted the opponent's reply, the position after that reply is
+	 * searched, and when the opponent plays it, the next move uses the result right away (or lets the search go on
+	 * for the time budget of the move). Otherwise, the current position is searched from the opponent's side, which
+	 * fills the transposition table with the positions after every reply. The search runs on a copy of the gameboard,
+	 * so the opponent's move can be set on the gameboard while it runs. Only the MINIMAX engine ponders.
+	 */
+	public void startPondering() {
+		Player opponent = player.getNextPlayer();
+		if (!pondering || (engineType != EngineType.MINIMAX) || (ponderResult != null) || board.isFull() || board.hasPlayerWon(player) || board.hasPlayerWon(opponent)) {
+			return;
+		}
+		
+		Board ponderBoard = new Board(board);
+		Player ponderPlayer = opponent;
+		int predictedMove = aILogic.getPredictedMove(opponent);
+		ponderingPrediction = false;
+		if (predictedMove != TranspositionTable.NO_MOVE) {
+			ponderBoard.setMoveOnBoard(predictedMove, opponent);
+			if (!ponderBoard.hasPlayerWon(opponent) && !ponderBoard.isFull()) {
+				ponderingPrediction = true;
+				ponderKey = ponderBoard.getZobristKey(player);
+				ponderPlayer = player;
+			}
+			else { // The predicted reply ends the game, so there is nothing to search after it.
+				ponderBoard.removeMoveFromBoard(predictedMove);
+			}
+		}
+		
+		if (ponderExecutor == null) {
+			ponderExecutor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "ponder");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		SearchLimits ponderLimits = new SearchLimits(searchLimits.getMaxDepth());
+		ponderLimits.setNodeBudget(searchLimits.getNodeBudget());
+		AI search = aILogic.createCopy(ponderBoard);
+		Player searchPlayer = ponderPlayer;
+		ponderSearch = search;
+		ponderResult = ponderExecutor.submit(() -> search.search(searchPlayer, ponderLimits));
+	}
+	
+	/**
+	 * Stops the search on the opponent's time, if there is one, and waits for it to end.
+	 */
+	public void stopPondering() {
+		if (ponderResult == null) {
+			return;
+		}
+		ponderSearch.stop();
+		try {
+			ponderResult.get();
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException ee) {
+			throw new IllegalStateException("The ponder search failed.", ee.getCause());
+		}
+		finally {
+			ponderSearch = null;
+			ponderResult = null;
+		}
+	}
+	
+	/**
+	 * Gets the result of the search on the opponent's time once the opponent played the predicted reply. Without
+	 * a time budget, the search is waited for, since it searches exactly the position of the move. With a time budget,
+	 * it is given the budget of the move to go on before being stopped.
+	 * 
+	 * @param startTime The time the move started, from System.nanoTime().
+	 * @return The result, timed from the start of the move, or null if the wait was interrupted.
+	 */
+	private SearchResult finishPonderHit(long startTime) {
+		SearchResult result;
+		try {
+			if (searchLimits.getTimeBudgetMillis() > 0) {
+				try {
+					result = ponderResult.get(searchLimits.getTimeBudgetMillis(), TimeUnit.MILLISECONDS);
+				}
+				catch (TimeoutException te) {
+					ponderSearch.stop();
+					result = ponderResult.get();
+				}
+			}
+			else {
+				result = ponderResult.get();
+			}
+		}
+		catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		catch (ExecutionException ee) {
+			throw new IllegalStateException("The ponder search failed.", ee.getCause());
+		}
+		return new SearchResult(result.getMove(), result.getDepth(), result.getNodes(), (System.nanoTime() - startTime) / 1000000);
+	}
+	
+	/**
+	 * Looks up the position in the opening book.
+	 * 
+	 * @param startTime The time the move started, from System.nanoTime().
+	 * @return The move of the book, or null if the position is not in it.
+	 */
+	private SearchResult probeOpeningBook(long startTime) {
+		Move move = openingBook.getMove(board, player);
+		if (move == null) {
+			return null;
+		}
+		long elapsedNanos = System.nanoTime() - startTime;
+		lastSearchStatistics = new SearchStatistics();
+		lastSearchStatistics.finishSearch(0, openingBook.getDepth(), elapsedNanos);
+		return new SearchResult(move, openingBook.getDepth(), 0, elapsedNanos / 1000000);
+	}
+	
+	/**
+	 * Solves the position with the endgame solver. Won and drawn positions are played with the move of the solver.
+	 * Lost positions, and positions that can't be solved within the budget, are left to the engine, whose heuristic
+	 * at least makes the opponent find the win. The nodes of a solve count toward the node budget of the move.
+	 * 
+	 * @param startTime The time the move started, from System.nanoTime().
+	 * @return The result of the solve, or null if the engine is to make the move.
+	 */
+	private SearchResult solveEndgame(long startTime) {
+		if (endgameSolver == null) {
+			endgameSolver = new EndgameSolver(board);
+		}
+		long timeBudgetMillis = (searchLimits.getTimeBudgetMillis() > 0)? Math.max(searchLimits.getTimeBudgetMillis() / 2, 1) : 0;
+		long nodeBudget = (searchLimits.getNodeBudget() > 0)? Math.max(searchLimits.getNodeBudget() / 2, 1) : 0;
+		if ((timeBudgetMillis == 0) && (nodeBudget == 0)) {
+			timeBudgetMillis = DEFAULT_ENDGAME_TIME_MILLIS;
+		}
+		SolveResult solveResult = endgameSolver.solve(player, timeBudgetMillis, nodeBudget);
+		if ((solveResult.getOutcome() != Outcome.WIN) && (solveResult.getOutcome() != Outcome.DRAW)) {
+			return null;
+		}
+		
+		Move move = solveResult.getMove();
+		int score = (solveResult.getOutcome() == Outcome.WIN)? WIN_SCORE : 0;
+		move.setScore((player == Player.PLAYER_ONE)? score : -score);
+		long elapsedNanos = System.nanoTime() - startTime;
+		lastSearchStatistics = new SearchStatistics();
+		lastSearchStatistics.finishSearch(solveResult.getNodes(), board.getNumOfEmptyCells(), elapsedNanos);
+		return new SearchResult(move, board.getNumOfEmptyCells(), solveResult.getNodes(), elapsedNanos / 1000000);
+	}
+	
+	/**
+	 * Returns the search limits of the engine, with the time and node budgets reduced by the time and nodes already
+	 * spent on the move, such as by an endgame solve that could not finish.
+	 * 
+	 * @param startTime The time the move started, from System.nanoTime().
+	 * @param spentNodes The number of nodes already visited for the move.
+	 * @return The search limits.
+	 */
+	private SearchLimits getRemainingLimits(long startTime, long spentNodes) {
+		long elapsedMillis = (System.nanoTime() - startTime) / 1000000;
+		boolean timeSpent = (searchLimits.getTimeBudgetMillis() > 0) && (elapsedMillis > 0);
+		boolean nodesSpent = (searchLimits.getNodeBudget() > 0) && (spentNodes > 0);
+		if (!timeSpent && !nodesSpent) {
+			return searchLimits;
+		}
+		SearchLimits remainingLimits = new SearchLimits(searchLimits.getMaxDepth());
+		remainingLimits.setNodeBudget(nodesSpent? Math.max(searchLimits.getNodeBudget() - spentNodes, 1) : searchLimits.getNodeBudget());
+		remainingLimits.setTimeBudgetMillis(timeSpent? Math.max(searchLimits.getTimeBudgetMillis() - elapsedMillis, 1)
+			: searchLimits.getTimeBudgetMillis());
+		return remainingLimits;
 	}
 }
@@ -0,0 +1,244 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+public class EndgameSolver {
+	// The number of entries of the cache. Each one takes a key and a byte, so the cache takes less than a megabyte.
+	private static final int CACHE_SIZE = 1 << 16;
+	
+	// The values of a position for the player to move. There are only three, so windows are narrow and most
+	// searches only have to find out whether a position is better or worse than a draw.
+	private static final int LOSS = -1;
+	private static final int DRAW = 0;
+	private static final int WIN = 1;
+	
+	// The bound types of a cached value, as in TranspositionTable. A cache entry packs the value plus 1 in bits
+	// 0-1, the bound in bits 2-3 and a valid flag in bit 4, so that a stored entry is never 0.
+	private static final int EXACT = 0;
+	private static final int LOWER_BOUND = 1;
+	private static final int UPPER_BOUND = 2;
+	private static final int VALID_FLAG = 0b10000;
+	
+	// The clock is only read once every this many positions.
+	private static final int TIME_CHECK_INTERVAL = 1024;
+	
+	// Returned as the best cell when there is none.
+	private static final int NO_CELL = -1;
+	
+	private Board board;
+	
+	// The cache of solved positions, indexed by canonical key. Values do not depend on how they were reached,
+	// so the cache is kept from one solve to the next.
+	private final long[] cacheKeys = new long[CACHE_SIZE];
+	private final byte[] cacheEntries = new byte[CACHE_SIZE];
+	
+	// The moves of every position on the current path, one list per ply.
+	private final int[][] moveLists = new int[50][49];
+	
+	private long nodes;
+	private long deadline;
+	private long nodeLimit;
+	private boolean stopped;
+	
+	/**
+	 * Creates an exact solver for positions with few empty cells. It searches every move to the end of the game,
+	 * scoring only wins, draws and losses, so it needs no heuristic. Positions where the player to move has a
+	 * winning cell are won without searching them, and when the opponent has one, only the cells that can stop it
+	 * are searched.
+	 * 
+	 * @param board The gameboard to solve.
+	 */
+	public EndgameSolver(Board board) {
+		this.board = board;
+	}
+	
+	/**
+	 * Solves the position for the player to move within the time budget.
+	 * 
+	 * @param player The player to move.
+	 * @param timeBudgetMillis The time budget in milliseconds, or 0 for no time limit.
+	 * @return The outcome of the position, with the winning move of a win, a drawing move of a draw and any move of
+	 * a loss, or UNKNOWN without a move if the budget ran out.
+	 */
+	public SolveResult solve(Player player, long timeBudgetMillis) {
+		return solve(player, timeBudgetMillis, 0);
+	}
+	
+	/**
+	 * Solves the position for the player to move within the time and node budgets. A solve limited by nodes
+	 * only visits the same positions every time it is run, so its outcome doesn't depend on the speed of the machine.
+	 * 
+	 * @param player The player to move.
+	 * @param timeBudgetMillis The time budget in milliseconds, or 0 for no time limit.
+	 * @param nodeBudget The maximum number of positions to visit, or 0 for no limit.
+	 * @return The outcome of the position, with the winning move of a win, a drawing move of a draw and any move of
+	 * a loss, or UNKNOWN without a move if either budget ran out.
+	 */
+	public SolveResult solve(Player player, long timeBudgetMillis, long nodeBudget) {
+		if (board.hasPlayerWon(Player.PLAYER_ONE) || board.hasPlayerWon(Player.PLAYER_TWO) || board.isFull()) {
+			throw new IllegalStateException("The game is over.");
+		}
+		long startTime = System.nanoTime();
+		deadline = (timeBudgetMillis > 0)? startTime + (timeBudgetMillis * 1000000) : Long.MAX_VALUE;
+		nodeLimit = (nodeBudget > 0)? nodeBudget : Long.MAX_VALUE;
+		nodes = 0;
+		stopped = false;
+		
+		Player opponent = player.getNextPlayer();
+		long moves = board.getWinningCells(player);
+		if (moves == 0) {
+			moves = board.getEmptyCells();
+			if (board.getWinningCells(opponent) != 0) {
+				moves = (board.getDefendingCells(opponent) & moves);
+				if (moves == 0) {
+					moves = board.getEmptyCells();
+				}
+			}
+		}
+		
+		int bestValue = LOSS - 1;
+		int bestCell = NO_CELL;
+		int alpha = LOSS;
+		int numOfMoves = orderMoves(player, moves, 0);
+		for (int i = 0; i < numOfMoves; i++) {
+			int cell = moveLists[0][i];
+			int value = searchMove(player, cell, -WIN, -alpha, 1);
+			if (stopped) {
+				break;
+			}
+			if (value > bestValue) {
+				bestValue = value;
+				bestCell = cell;
+				alpha = Math.max(alpha, value);
+				if (value == WIN) {
+					break;
+				}
+			}
+		}
+		
+		long elapsedMillis = (System.nanoTime() - startTime) / 1000000;
+		if (stopped) {
+			return new SolveResult(Outcome.UNKNOWN, null, nodes, elapsedMillis);
+		}
+		Move move = new Move();
+		move.setIndex(bestCell);
+		Outcome outcome = (bestValue == WIN)? Outcome.WIN : (bestValue == DRAW)? Outcome.DRAW : Outcome.LOSS;
+		return new SolveResult(outcome, move, nodes, elapsedMillis);
+	}
+	
+	/**
+	 * Sets a move and returns its value for the player who made it.
+	 * 
+	 * @param player The player making the move.
+	 * @param cell The bit index of the move.
+	 * @param alpha The value the opponent is already sure of, from the opponent's point of view.
+	 * @param beta The value the player is already sure of, from the opponent's point of view.
+	 * @param ply The number of moves from the root after the move.
+	 * @return The value of the move.
+	 */
+	private int searchMove(Player player, int cell, int alpha, int beta, int ply) {
+		board.setMoveOnBoard(cell, player);
+		int value;
+		if (board.hasPlayerWon(player)) {
+			value = WIN;
+		}
+		else if (board.isFull()) {
+			value = DRAW;
+		}
+		else {
+			value = -search(player.getNextPlayer(), alpha, beta, ply);
+		}
+		board.removeMoveFromBoard(cell);
+		return value;
+	}
+	
+	/**
+	 * Searches the position to the end of the game with alpha-beta pruning.
+	 * 
+	 * @param player The player to move.
+	 * @param alpha The value the player is already sure of.
+	 * @param beta The value the opponent is already sure of, from the player's point of view.
+	 * @param ply The number of moves from the root.
+	 * @return The value of the position for the player to move, or a bound of it outside of the window.
+	 */
+	private int search(Player player, int alpha, int beta, int ply) {
+		nodes++;
+		if ((nodes >= nodeLimit) || (((nodes % TIME_CHECK_INTERVAL) == 0) && (System.nanoTime() > deadline))) {
+			stopped = true;
+		}
+		if (stopped) {
+			return DRAW;
+		}
+		if (board.getWinningCells(player) != 0) {
+			return WIN;
+		}
+		Player opponent = player.getNextPlayer();
+		long moves = board.getEmptyCells();
+		if (board.getWinningCells(opponent) != 0) {
+			moves &= board.getDefendingCells(opponent);
+			if (moves == 0) {
+				return LOSS;
+			}
+		}
+		
+		long key = board.getCanonicalKey(player);
+		int slot = (int) key & (CACHE_SIZE - 1);
+		int entry = cacheEntries[slot];
+		if ((entry != 0) && (cacheKeys[slot] == key)) {
+			int value = (entry & 0b11) - 1;
+			int bound = (entry >> 2) & 0b11;
+			if ((bound == EXACT) || ((bound == LOWER_BOUND) && (value >= beta)) || ((bound == UPPER_BOUND) && (value <= alpha))) {
+				return value;
+			}
+		}
+		
+		int originalAlpha = alpha;
+		int bestValue = LOSS;
+		int numOfMoves = orderMoves(player, moves, ply);
+		for (int i = 0; i < numOfMoves; i++) {
+			int value = searchMove(player, moveLists[ply][i], -beta, -alpha, ply + 1);
+			if (value > bestValue) {
+				bestValue = value;
+				if (value > alpha) {
+					alpha = value;
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+		}
+		
+		if (!stopped) {
+			int bound = (bestValue <= originalAlpha)? UPPER_BOUND : (bestValue >= beta)? LOWER_BOUND : EXACT;
+			cacheKeys[slot] = key;
+			cacheEntries[slot] = (byte) (VALID_FLAG | (bound << 2) | (bestValue + 1));
+		}
+		return bestValue;
+	}
+	
+	/**
+	 * Lists the moves to search at a ply, those that give the player a winning cell first.
+	 * 
+	 * @param player The player to move.
+	 * @param moves The bit literal of the moves to search.
+	 * @param ply The number of moves from the root, which selects the list to fill.
+	 * @return The number of moves.
+	 */
+	private int orderMoves(Player player, long moves, int ply) {
+		int[] moveList = moveLists[ply];
+		long threatMoves = moves & board.getThreatCells(player);
+		int numOfMoves = 0;
+		for (long cells = threatMoves; cells != 0; cells &= cells - 1) {
+			moveList[numOfMoves++] = Long.numberOfTrailingZeros(cells);
+		}
+		for (long cells = moves & ~threatMoves; cells != 0; cells &= cells - 1) {
+			moveList[numOfMoves++] = Long.numberOfTrailingZeros(cells);
+		}
+		return numOfMoves;
+	}
+	
+	public long getNodes() {
+		return nodes;
+	}
+}
@@ -0,0 +1,27 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+public interface Engine {
+	/**
+	 * Searches the gameboard of the engine for the best move of the given player within the limits.
+	 * 
+	 * @param player The player to find a move for.
+	 * @param limits The limits of the search. Each engine documents which of them it uses.
+	 * @return The best move along with the depth reached, the work done and the time taken.
+	 */
+	SearchResult search(Player player, SearchLimits limits);
+	
+	/**
+	 * Asks a search running on another thread to stop and return the best move found so far.
+	 */
+	void stop();
+	
+	/**
+	 * Returns the statistics of the last search.
+	 * 
+	 * @return The statistics.
+	 */
+	SearchStatistics getStatistics();
+}
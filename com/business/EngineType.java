@@ -0,0 +1,13 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+public enum EngineType {
+	// The minimax search of AI, with alpha-beta pruning and the ladder heuristic (see SearchMode for its variants).
+	MINIMAX,
+	
+	// Monte Carlo tree search (see MonteCarloSearch), which needs no heuristic: positions are scored by the
+	// results of random games played from them.
+	MONTE_CARLO
+}
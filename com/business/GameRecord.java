@@ -0,0 +1,208 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+public class GameRecord {
+	// A record starts with 3 bytes: the flags, the result and the number of moves. The moves follow, one byte each
+	// (the bit index of the cell), then the score of every move (2 bytes each) if SCORES_FLAG is set and the time
+	// of every move (4 bytes each, in milliseconds) if TIMES_FLAG is set.
+	static final int HEADER_BYTES = 3;
+	private static final int SCORES_FLAG = 0b1;
+	private static final int TIMES_FLAG = 0b10;
+	
+	// The results of a game, as stored in a record.
+	private static final int UNFINISHED = 0;
+	private static final int PLAYER_ONE_WON = 1;
+	private static final int PLAYER_TWO_WON = 2;
+	private static final int DRAW = 3;
+	
+	private byte[] moves = new byte[49];
+	private short[] scores;
+	private int[] timesMillis;
+	private int numOfMoves;
+	private int result = UNFINISHED;
+	
+	/**
+	 * Creates an empty record of a game, which gets its moves as they are played.
+	 * 
+	 * @param withScores Whether the score of every move is recorded.
+	 * @param withTimes Whether the time of every move is recorded.
+	 */
+	public GameRecord(boolean withScores, boolean withTimes) {
+		this.scores = withScores? new short[49] : null;
+		this.timesMillis = withTimes? new int[49] : null;
+	}
+	
+	/**
+	 * Adds a move without a score or time, such as a move of an opening or of a human player.
+	 * 
+	 * @param index The bit index of the move.
+	 */
+	public void addMove(int index) {
+		addMove(index, 0, 0);
+	}
+	
+	/**
+	 * Adds a move. The score and time are left out of the record if it doesn't hold them.
+	 * 
+	 * @param index The bit index of the move.
+	 * @param score The score of the move, from the point of view of PLAYER_ONE.
+	 * @param timeMillis The time taken to find the move.
+	 */
+	public void addMove(int index, int score, long timeMillis) {
+		if (numOfMoves == moves.length) {
+			throw new IllegalStateException("The gameboard is full.");
+		}
+		moves[numOfMoves] = (byte) index;
+		if (scores != null) {
+			scores[numOfMoves] = (short) Math.max(Math.min(score, Short.MAX_VALUE), Short.MIN_VALUE);
+		}
+		if (timesMillis != null) {
+			timesMillis[numOfMoves] = (int) Math.min(timeMillis, Integer.MAX_VALUE);
+		}
+		numOfMoves++;
+	}
+	
+	/**
+	 * Records the result of the game.
+	 * 
+	 * @param winner The winner, or null if the game is a draw.
+	 */
+	public void finish(Player winner) {
+		if (winner == null) {
+			result = DRAW;
+		}
+		else {
+			result = (winner == Player.PLAYER_ONE)? PLAYER_ONE_WON : PLAYER_TWO_WON;
+		}
+	}
+	
+	public boolean isFinished() {
+		return result != UNFINISHED;
+	}
+	
+	/**
+	 * Returns the winner of the game.
+	 * 
+	 * @return The winner, or null if the game is a draw or is not finished.
+	 */
+	public Player getWinner() {
+		return (result == PLAYER_ONE_WON)? Player.PLAYER_ONE : (result == PLAYER_TWO_WON)? Player.PLAYER_TWO : null;
+	}
+	
+	public int getNumOfMoves() {
+		return numOfMoves;
+	}
+	
+	public int getMove(int moveNumber) {
+		return moves[moveNumber];
+	}
+	
+	public boolean hasScores() {
+		return scores != null;
+	}
+	
+	public int getScore(int moveNumber) {
+		return (scores != null)? scores[moveNumber] : 0;
+	}
+	
+	public boolean hasTimes() {
+		return timesMillis != null;
+	}
+	
+	public long getTimeMillis(int moveNumber) {
+		return (timesMillis != null)? timesMillis[moveNumber] : 0;
+	}
+	
+	/**
+	 * Replays the moves of the game on a new gameboard, PLAYER_ONE moving first.
+	 * 
+	 * @return The gameboard after the last move.
+	 */
+	public Board replay() {
+		Board board = new Board();
+		Player player = Player.PLAYER_ONE;
+		for (int i = 0; i < numOfMoves; i++) {
+			board.setMoveOnBoard(moves[i], player);
+			player = player.getNextPlayer();
+		}
+		return board;
+	}
+	
+	/**
+	 * Writes the record in the binary format of GameRecordWriter.
+	 * 
+	 * @param output The stream to write to.
+	 */
+	void write(DataOutputStream output) throws IOException {
+		output.writeByte(((scores != null)? SCORES_FLAG : 0) | ((timesMillis != null)? TIMES_FLAG : 0));
+		output.writeByte(result);
+		output.writeByte(numOfMoves);
+		output.write(moves, 0, numOfMoves);
+		for (int i = 0; (scores != null) && (i < numOfMoves); i++) {
+			output.writeShort(scores[i]);
+		}
+		for (int i = 0; (timesMillis != null) && (i < numOfMoves); i++) {
+			output.writeInt(timesMillis[i]);
+		}
+	}
+	
+	/**
+	 * Returns the length of the record starting at the given offset, read from its header.
+	 * 
+	 * @param buffer The records.
+	 * @param offset The offset of the record.
+	 * @return The number of bytes of the record.
+	 */
+	static int getLength(ByteBuffer buffer, int offset) {
+		int flags = buffer.get(offset);
+		int numOfMoves = buffer.get(offset + 2) & 0xFF; // Never negative, so that stepping over records always moves forward.
+		int bytesPerMove = 1 + (((flags & SCORES_FLAG) != 0)? 2 : 0) + (((flags & TIMES_FLAG) != 0)? 4 : 0);
+		return HEADER_BYTES + (numOfMoves * bytesPerMove);
+	}
+	
+	/**
+	 * Checks that the header of the record starting at the given offset holds known flags, a known result and no
+	 * more moves than there are cells, so that its length can be trusted.
+	 * 
+	 * @param buffer The records.
+	 * @param offset The offset of the record.
+	 * @return Whether the header is valid.
+	 */
+	static boolean hasValidHeader(ByteBuffer buffer, int offset) {
+		int flags = buffer.get(offset);
+		int result = buffer.get(offset + 1);
+		int numOfMoves = buffer.get(offset + 2);
+		return ((flags & ~(SCORES_FLAG | TIMES_FLAG)) == 0) && (result >= UNFINISHED) && (result <= DRAW)
+			&& (numOfMoves >= 0) && (numOfMoves <= 49);
+	}
+	
+	/**
+	 * Reads the record starting at the given offset.
+	 * 
+	 * @param buffer The records.
+	 * @param offset The offset of the record.
+	 * @return The record.
+	 */
+	static GameRecord read(ByteBuffer buffer, int offset) {
+		int flags = buffer.get(offset);
+		GameRecord record = new GameRecord((flags & SCORES_FLAG) != 0, (flags & TIMES_FLAG) != 0);
+		record.result = buffer.get(offset + 1);
+		record.numOfMoves = buffer.get(offset + 2);
+		int position = offset + HEADER_BYTES;
+		buffer.get(position, record.moves, 0, record.numOfMoves);
+		position += record.numOfMoves;
+		for (int i = 0; (record.scores != null) && (i < record.numOfMoves); i++, position += 2) {
+			record.scores[i] = buffer.getShort(position);
+		}
+		for (int i = 0; (record.timesMillis != null) && (i < record.numOfMoves); i++, position += 4) {
+			record.timesMillis[i] = buffer.getInt(position);
+		}
+		return record;
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class GameRecordReader {
+	// The mapped file. It is only read with absolute gets, so a reader can be used by any number of threads at once.
+	private final ByteBuffer buffer;
+	
+	// The offset of every record in the file, found by stepping from one record header to the next.
+	private final int[] offsets;
+	
+	private GameRecordReader(ByteBuffer buffer) {
+		if ((buffer.capacity() < GameRecordWriter.HEADER_BYTES) || (buffer.getInt(0) != GameRecordWriter.MAGIC)
+			|| (buffer.getInt(4) != GameRecordWriter.VERSION)) {
+			throw new IllegalArgumentException("Not a game record file.");
+		}
+		this.buffer = buffer;
+		
+		int[] offsets = new int[1024];
+		int numOfGames = 0;
+		int offset = GameRecordWriter.HEADER_BYTES;
+		while (offset + GameRecord.HEADER_BYTES <= buffer.capacity()) {
+			if (!GameRecord.hasValidHeader(buffer, offset)) { // Its length can't be trusted to reach the next record.
+				throw new IllegalArgumentException("Corrupt game record at offset " + offset + ".");
+			}
+			if (offset + GameRecord.getLength(buffer, offset) > buffer.capacity()) { // The last record was only partly written.
+				break;
+			}
+			if (numOfGames == offsets.length) {
+				offsets = Arrays.copyOf(offsets, offsets.length * 2);
+			}
+			offsets[numOfGames++] = offset;
+			offset += GameRecord.getLength(buffer, offset);
+		}
+		this.offsets = Arrays.copyOf(offsets, numOfGames);
+	}
+	
+	/**
+	 * Maps a record file into memory, read-only, and indexes its records. Only the record headers are read to
+	 * build the index, and a game is only decoded when it is asked for.
+	 * 
+	 * @param path The record file, of at most 2 GB.
+	 * @return The reader.
+	 * @throws IOException If the file can't be read.
+	 */
+	public static GameRecordReader open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Record files are limited to 2 GB.");
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new GameRecordReader(buffer);
+		}
+	}
+	
+	public int getNumOfGames() {
+		return offsets.length;
+	}
+	
+	/**
+	 * Reads a game.
+	 * 
+	 * @param gameNumber The number of the game, from 0 in the order they were written.
+	 * @return The record of the game.
+	 */
+	public GameRecord getGame(int gameNumber) {
+		return GameRecord.read(buffer, offsets[gameNumber]);
+	}
+}
@@ -0,0 +1,106 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class GameRecordWriter implements Closeable {
+	// A record file starts with MAGIC and VERSION, 4 bytes each, followed by the records one after another (see
+	// GameRecord for their layout). A game of 30 moves takes 33 bytes, or 213 with the score and time of every move.
+	static final int MAGIC = 0x504C4752; // "PLGR"
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 8;
+	
+	private DataOutputStream output;
+	
+	/**
+	 * Opens a record file for appending, creating it if it doesn't exist. Records are only ever added at the end,
+	 * so a file being written can be read at the same time, and a process that stops partway loses at most the
+	 * record being written, which readers skip. That partly written record is cut off when the file is opened
+	 * again, so that the new records follow the last complete one. Only one writer may have a file open at a time.
+	 * 
+	 * @param path The record file.
+	 * @throws IOException If the file can't be opened.
+	 * @throws IllegalArgumentException If the file isn't empty and isn't a game record file.
+	 */
+	public GameRecordWriter(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		boolean newFile = channel.size() == 0;
+		try {
+			if (!newFile) {
+				channel.truncate(findEndOfRecords(channel));
+			}
+			channel.position(channel.size());
+		}
+		catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+		if (newFile) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.flush();
+		}
+	}
+	
+	/**
+	 * Checks the file header and steps from one record header to the next, like GameRecordReader, to find where
+	 * the last complete record ends.
+	 * 
+	 * @param channel The record file, which is left open.
+	 * @return The offset just past the last complete record.
+	 * @throws IOException If the file can't be read.
+	 */
+	private static long findEndOfRecords(FileChannel channel) throws IOException {
+		long size = channel.position(0).size();
+		DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+		if ((size < HEADER_BYTES) || (input.readInt() != MAGIC) || (input.readInt() != VERSION)) {
+			throw new IllegalArgumentException("Not a game record file.");
+		}
+		
+		byte[] recordHeader = new byte[GameRecord.HEADER_BYTES];
+		ByteBuffer headerBuffer = ByteBuffer.wrap(recordHeader);
+		long offset = HEADER_BYTES;
+		while (offset + GameRecord.HEADER_BYTES <= size) {
+			input.readFully(recordHeader);
+			if (!GameRecord.hasValidHeader(headerBuffer, 0)) {
+				throw new IllegalArgumentException("Corrupt game record at offset " + offset + ".");
+			}
+			int length = GameRecord.getLength(headerBuffer, 0);
+			if (offset + length > size) { // The last record was only partly written.
+				break;
+			}
+			input.skipNBytes(length - GameRecord.HEADER_BYTES);
+			offset += length;
+		}
+		return offset;
+	}
+	
+	/**
+	 * Appends the record of a game. Games played on several threads can be written through the same writer.
+	 * 
+	 * @param record The record of the game.
+	 * @throws IOException If the record can't be written.
+	 */
+	public synchronized void write(GameRecord record) throws IOException {
+		record.write(output);
+		output.flush();
+	}
+	
+	@Override
+	public synchronized void close() throws IOException {
+		output.close();
+	}
+}
@@ -0,0 +1,464 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class MonteCarloSearch implements Engine {
+	// The number of iterations (each ending with one playout) of a search with neither an iteration nor a time budget.
+	public static final long DEFAULT_ITERATIONS = 50000;
+	
+	// The default number of nodes of each search tree. A node takes 14 bytes, so a tree takes about 14 MB.
+	public static final int DEFAULT_MAX_NODES = 1 << 20;
+	
+	// The default exploration constant of UCT, which balances trying the moves that scored best so far
+	// against trying the moves that were tried the least.
+	private static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+	
+	// Marks a node whose children have not been created yet.
+	private static final int UNEXPANDED = -1;
+	
+	// The score of a move that wins every playout. It is kept below the scores of AI that mean a player has won,
+	// since a playout win rate is never a proof.
+	private static final int MAX_SCORE = 99;
+	
+	// The time and stop request are only checked every ITERATIONS_PER_LIMIT_CHECK iterations.
+	private static final int ITERATIONS_PER_LIMIT_CHECK = 256;
+	
+	// The players are plain indices inside the search. NO_WINNER is the result of a playout that ends in a draw.
+	private static final int NO_WINNER = -1;
+	
+	private Board board;
+	
+	// One search tree per thread. The trees are searched independently from the same root (root parallelization),
+	// and the visits of their root moves are added up at the end, so the threads never share any state.
+	private final SearchTree[] trees;
+	private ExecutorService helperExecutor;
+	
+	private double exploration = DEFAULT_EXPLORATION;
+	
+	// Whether playouts play a winning move, or else block the opponent's winning move, when there is one,
+	// instead of always playing a random move.
+	private boolean biasedPlayouts = true;
+	
+	// The state of the current search, shared by the threads.
+	private long deadline;
+	private volatile boolean stopRequested;
+	
+	private final SearchStatistics statistics = new SearchStatistics();
+	
+	public MonteCarloSearch(Board board) {
+		this(board, 1, DEFAULT_MAX_NODES);
+	}
+	
+	/**
+	 * Creates a Monte Carlo tree search over the given gameboard.
+	 * 
+	 * @param board The gameboard to search.
+	 * @param numOfThreads The number of threads, each growing its own search tree.
+	 * @param maxNodes The number of nodes of each search tree. Once a tree is full, it stops growing but playouts go on.
+	 */
+	public MonteCarloSearch(Board board, int numOfThreads, int maxNodes) {
+		if (numOfThreads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed to search.");
+		}
+		this.board = board;
+		this.trees = new SearchTree[numOfThreads];
+		for (int i = 0; i < numOfThreads; i++) {
+			trees[i] = new SearchTree(maxNodes);
+		}
+		if (numOfThreads > 1) {
+			helperExecutor = Executors.newFixedThreadPool(numOfThreads - 1, runnable -> {
+				Thread thread = new Thread(runnable, "monte-carlo-helper");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+	
+	public void setExploration(double exploration) {
+		this.exploration = exploration;
+	}
+	
+	public void setBiasedPlayouts(boolean biasedPlayouts) {
+		this.biasedPlayouts = biasedPlayouts;
+	}
+	
+	/**
+	 * Searches for the best move with UCT: each iteration walks down the tree by the moves with the best upper
+	 * confidence bound, adds the children of the node it ends on, plays a random game (a playout) from there on
+	 * bare bit literals and adds its result to every node on the way. The move played is the most visited one.
+	 * The node budget of the limits is the number of iterations, and the depth limit is not used.
+	 * 
+	 * @param player The player to find a move for.
+	 * @param limits The iteration and time budgets of the search.
+	 * @return The most visited move, scored from its win rate, along with the depth of the deepest tree and the number of playouts.
+	 */
+	@Override
+	public SearchResult search(Player player, SearchLimits limits) {
+		long startTime = System.nanoTime();
+		if (board.getEmptyCells() == 0) {
+			throw new IllegalStateException("There is no move left to search.");
+		}
+		long iterations = limits.getNodeBudget();
+		if (iterations <= 0) {
+			iterations = (limits.getTimeBudgetMillis() > 0)? Long.MAX_VALUE : DEFAULT_ITERATIONS;
+		}
+		deadline = (limits.getTimeBudgetMillis() > 0)? startTime + (limits.getTimeBudgetMillis() * 1000000) : Long.MAX_VALUE;
+		long treeIterations = (iterations == Long.MAX_VALUE)? iterations : Math.max((iterations + trees.length - 1) / trees.length, 1);
+		
+		List<Future<?>> helperResults = new ArrayList<Future<?>>();
+		for (int i = 1; i < trees.length; i++) {
+			SearchTree tree = trees[i];
+			long seed = board.getZobristKey(player) + i;
+			helperResults.add(helperExecutor.submit(() -> tree.search(player.getIndex(), treeIterations, seed)));
+		}
+		trees[0].search(player.getIndex(), treeIterations, board.getZobristKey(player));
+		for (Future<?> helperResult : helperResults) {
+			try {
+				helperResult.get();
+			}
+			catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+			}
+			catch (ExecutionException ee) {
+				throw new IllegalStateException("A helper search failed.", ee.getCause());
+			}
+		}
+		stopRequested = false;
+		
+		// Add up the visits and wins of every root move over the trees.
+		long[] moveVisits = new long[64];
+		double[] moveWins = new double[64];
+		long playouts = 0;
+		int depth = 0;
+		for (SearchTree tree : trees) {
+			tree.addRootMoves(moveVisits, moveWins);
+			playouts += tree.playouts;
+			depth = Math.max(depth, tree.maxDepth);
+		}
+		int bestMove = Long.numberOfTrailingZeros(board.getEmptyCells());
+		for (int move = 0; move < moveVisits.length; move++) {
+			if (moveVisits[move] > moveVisits[bestMove]) {
+				bestMove = move;
+			}
+		}
+		double winRate = (moveVisits[bestMove] > 0)? moveWins[bestMove] / moveVisits[bestMove] : 0.5;
+		int score = (int) Math.round(((2 * winRate) - 1) * MAX_SCORE);
+		
+		Move move = new Move();
+		move.setIndex(bestMove);
+		move.setScore((player == Player.PLAYER_ONE)? score : -score);
+		long elapsedNanos = System.nanoTime() - startTime;
+		statistics.reset();
+		statistics.finishSearch(playouts, depth, elapsedNanos);
+		return new SearchResult(move, depth, playouts, elapsedNanos / 1000000);
+	}
+	
+	/**
+	 * Asks a search running on another thread to stop. A search that has not started yet
+	 * stops after its first ITERATIONS_PER_LIMIT_CHECK iterations.
+	 */
+	@Override
+	public void stop() {
+		stopRequested = true;
+	}
+	
+	/**
+	 * Returns the statistics of the last search, where the nodes are the playouts and the depth
+	 * is the depth of the deepest search tree.
+	 * 
+	 * @return The statistics of the last search.
+	 */
+	@Override
+	public SearchStatistics getStatistics() {
+		return statistics;
+	}
+	
+	/**
+	 * Returns the number of playouts per second of the last search, over all threads.
+	 * 
+	 * @return The playouts per second.
+	 */
+	public long getPlayoutsPerSecond() {
+		return statistics.getNodesPerSecond();
+	}
+	
+	/**
+	 * Stops the helper threads. The search can't be used afterwards.
+	 */
+	public void shutdown() {
+		if (helperExecutor != null) {
+			helperExecutor.shutdownNow();
+		}
+	}
+	
+	private class SearchTree {
+		// The nodes are stored in parallel arrays rather than as objects, so that growing the tree allocates nothing.
+		// The children of a node are stored next to each other from firstChild. The wins of a node are counted for
+		// the player who made its move: 1 for a win and 0.5 for a draw.
+		private final int[] firstChild;
+		private final byte[] numOfChildren;
+		private final byte[] moves;
+		private final int[] visits;
+		private final float[] wins;
+		private int numOfNodes;
+		
+		// The nodes visited by the current iteration, from the root.
+		private final int[] path = new int[64];
+		
+		// The tokens of each player and the cells where each player may be able to win during the current iteration.
+		// Winning cells are only added as moves are made, so they are checked again before being played.
+		private final long[] playersMoves = new long[2];
+		private final long[] winningCells = new long[2];
+		
+		private long random;
+		private long playouts;
+		private int maxDepth;
+		
+		private SearchTree(int maxNodes) {
+			firstChild = new int[maxNodes];
+			numOfChildren = new byte[maxNodes];
+			moves = new byte[maxNodes];
+			visits = new int[maxNodes];
+			wins = new float[maxNodes];
+		}
+		
+		/**
+		 * Grows the tree from the gameboard for the given number of iterations, or until the time runs out.
+		 * 
+		 * @param rootPlayer The index of the player to move.
+		 * @param iterations The number of iterations.
+		 * @param seed The seed of the random playouts.
+		 */
+		private void search(int rootPlayer, long iterations, long seed) {
+			numOfNodes = 1;
+			firstChild[0] = UNEXPANDED;
+			visits[0] = 0;
+			playouts = 0;
+			maxDepth = 0;
+			random = (seed * 0x9E3779B97F4A7C15L) | 1; // A xorshift generator must not start from 0.
+			long rootPlayerOneMoves = board.getPlayerMoves(Player.PLAYER_ONE);
+			long rootPlayerTwoMoves = board.getPlayerMoves(Player.PLAYER_TWO);
+			long rootPlayerOneWinningCells = board.getWinningCells(Player.PLAYER_ONE);
+			long rootPlayerTwoWinningCells = board.getWinningCells(Player.PLAYER_TWO);
+			for (long i = 0; i < iterations; i++) {
+				if (((i % ITERATIONS_PER_LIMIT_CHECK) == 0) && (i > 0) && (stopRequested || (System.nanoTime() >= deadline))) {
+					break;
+				}
+				playersMoves[0] = rootPlayerOneMoves;
+				playersMoves[1] = rootPlayerTwoMoves;
+				winningCells[0] = rootPlayerOneWinningCells;
+				winningCells[1] = rootPlayerTwoWinningCells;
+				iterate(rootPlayer);
+				playouts++;
+			}
+		}
+		
+		/**
+		 * Runs one iteration: selection, expansion, playout and backpropagation.
+		 * 
+		 * @param rootPlayer The index of the player to move at the root.
+		 */
+		private void iterate(int rootPlayer) {
+			int node = 0;
+			int depth = 0;
+			int mover = rootPlayer;
+			int winner = NO_WINNER;
+			boolean gameOver = false;
+			path[0] = 0;
+			while (true) {
+				if (firstChild[node] == UNEXPANDED) {
+					// A node is expanded on its second visit, so nodes that are only seen once don't use up the tree.
+					if (((node != 0) && (visits[node] == 0)) || !expand(node)) {
+						break;
+					}
+				}
+				node = select(node);
+				int cell = moves[node];
+				playersMoves[mover] |= 0b1L << cell;
+				path[++depth] = node;
+				if (Board.completesLadder(playersMoves[mover], playersMoves[1 - mover], cell)) {
+					winner = mover;
+					gameOver = true;
+					break;
+				}
+				if ((playersMoves[0] | playersMoves[1]) == Board.FULL_BOARD) {
+					gameOver = true;
+					break;
+				}
+				if (biasedPlayouts) {
+					winningCells[mover] |= Board.getWinningCellsThrough(playersMoves[mover], playersMoves[1 - mover], cell);
+				}
+				mover = 1 - mover;
+			}
+			if (depth > maxDepth) {
+				maxDepth = depth;
+			}
+			if (!gameOver) {
+				winner = playout(mover);
+			}
+			
+			// The player who made the move of the node at an odd depth is the root player.
+			for (int i = 0; i <= depth; i++) {
+				int pathNode = path[i];
+				visits[pathNode]++;
+				if (i > 0) {
+					int nodeMover = ((i % 2) == 1)? rootPlayer : 1 - rootPlayer;
+					if (winner == NO_WINNER) {
+						wins[pathNode] += 0.5f;
+					}
+					else if (winner == nodeMover) {
+						wins[pathNode] += 1;
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Creates a child of the node for every empty cell, if the tree has room for them.
+		 * 
+		 * @param node The node to expand.
+		 * @return Whether the node was expanded.
+		 */
+		private boolean expand(int node) {
+			long emptyCells = Board.FULL_BOARD & ~(playersMoves[0] | playersMoves[1]);
+			int count = Long.bitCount(emptyCells);
+			if ((count == 0) || (numOfNodes + count > firstChild.length)) {
+				return false;
+			}
+			firstChild[node] = numOfNodes;
+			numOfChildren[node] = (byte) count;
+			while (emptyCells != 0) {
+				int cell = Long.numberOfTrailingZeros(emptyCells);
+				emptyCells &= emptyCells - 1;
+				moves[numOfNodes] = (byte) cell;
+				firstChild[numOfNodes] = UNEXPANDED;
+				visits[numOfNodes] = 0;
+				wins[numOfNodes] = 0;
+				numOfNodes++;
+			}
+			return true;
+		}
+		
+		/**
+		 * Picks the child with the best upper confidence bound. Children that were never visited come first.
+		 * 
+		 * @param node The node to pick a child of.
+		 * @return The child.
+		 */
+		private int select(int node) {
+			int first = firstChild[node];
+			int last = first + numOfChildren[node];
+			double logVisits = Math.log(visits[node]);
+			int bestChild = first;
+			double bestBound = Double.NEGATIVE_INFINITY;
+			for (int child = first; child < last; child++) {
+				int childVisits = visits[child];
+				if (childVisits == 0) {
+					return child;
+				}
+				double bound = (wins[child] / childVisits) + (exploration * Math.sqrt(logVisits / childVisits));
+				if (bound > bestBound) {
+					bestBound = bound;
+					bestChild = child;
+				}
+			}
+			return bestChild;
+		}
+		
+		/**
+		 * Plays the game out from the current position. When biased, a player with a winning cell plays it,
+		 * otherwise a player blocks the opponent's winning cell, otherwise a random empty cell is played.
+		 * 
+		 * @param mover The index of the player to move.
+		 * @return The index of the winner, or NO_WINNER for a draw.
+		 */
+		private int playout(int mover) {
+			while (true) {
+				long emptyCells = Board.FULL_BOARD & ~(playersMoves[0] | playersMoves[1]);
+				if (emptyCells == 0) {
+					return NO_WINNER;
+				}
+				int cell = -1;
+				if (biasedPlayouts) {
+					cell = findWinningCell(mover, emptyCells);
+					if (cell < 0) {
+						cell = findWinningCell(1 - mover, emptyCells);
+					}
+				}
+				if (cell < 0) {
+					cell = randomCell(emptyCells);
+				}
+				playersMoves[mover] |= 0b1L << cell;
+				if (Board.completesLadder(playersMoves[mover], playersMoves[1 - mover], cell)) {
+					return mover;
+				}
+				if (biasedPlayouts) {
+					winningCells[mover] |= Board.getWinningCellsThrough(playersMoves[mover], playersMoves[1 - mover], cell);
+				}
+				mover = 1 - mover;
+			}
+		}
+		
+		/**
+		 * Finds an empty cell that wins for the given player, dropping the cells that no longer do.
+		 * 
+		 * @param player The index of the player.
+		 * @param emptyCells The bit literal of the empty cells.
+		 * @return The bit index of the cell, or -1 if there is none.
+		 */
+		private int findWinningCell(int player, long emptyCells) {
+			long candidates = winningCells[player] & emptyCells;
+			while (candidates != 0) {
+				int cell = Long.numberOfTrailingZeros(candidates);
+				candidates &= candidates - 1;
+				if (Board.completesLadder(playersMoves[player] | (0b1L << cell), playersMoves[1 - player], cell)) {
+					return cell;
+				}
+				winningCells[player] &= ~(0b1L << cell);
+			}
+			winningCells[player] &= emptyCells;
+			return -1;
+		}
+		
+		/**
+		 * Picks an empty cell at random with a xorshift generator.
+		 * 
+		 * @param emptyCells The bit literal of the empty cells. Must not be 0.
+		 * @return The bit index of the cell.
+		 */
+		private int randomCell(long emptyCells) {
+			random ^= random << 13;
+			random ^= random >>> 7;
+			random ^= random << 17;
+			int skip = (int) (((random >>> 32) * Long.bitCount(emptyCells)) >>> 32);
+			for (int i = 0; i < skip; i++) {
+				emptyCells &= emptyCells - 1;
+			}
+			return Long.numberOfTrailingZeros(emptyCells);
+		}
+		
+		/**
+		 * Adds the visits and wins of the root's children to the totals of each move.
+		 * 
+		 * @param moveVisits The visits of each move, by bit index.
+		 * @param moveWins The wins of each move, by bit index.
+		 */
+		private void addRootMoves(long[] moveVisits, double[] moveWins) {
+			if (firstChild[0] == UNEXPANDED) {
+				return;
+			}
+			for (int child = firstChild[0]; child < firstChild[0] + numOfChildren[0]; child++) {
+				moveVisits[moves[child]] += visits[child];
+				moveWins[moves[child]] += wins[child];
+			}
+		}
+	}
+}
@@ -0,0 +1,320 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+public class MultiWordBoard {
+	private final BoardGeometry geometry;
+	
+	// For every cell, the ladders it belongs to and whether it is one of the ladder's own cells (rather than one of its
+	// neutralizing cells). They are shared by copies of the gameboard.
+	private final int[][] cellLadders;
+	private final boolean[][] isLadderCell;
+	
+	// Whether each ladder can be neutralized at all.
+	private final boolean[] isNeutralizable;
+	
+	// The tokens of each player as a multi-word bit literal, with cell i in bit (i % 64) of word (i / 64).
+	private final long[][] playersMoves;
+	
+	// The number of tokens each player has on every ladder and on its neutralizing cells. Unlike Board, which counts
+	// the bits of a mask, the counts are kept per ladder, so that no ladder ever has to be read word by word.
+	private final int[][] ladderTokens;
+	private final int[][] neutralizerTokens;
+	
+	// Running counts, indexed by player, of the live ladders holding 3, 4 and 5 of that player's tokens, as in Board.
+	private final int[] threeTokenLadders;
+	private final int[] fourTokenLadders;
+	private final int[] completedLadders;
+	
+	private int numOfTokens;
+	
+	/**
+	 * Creates an empty gameboard of any size. Board is specialized for the standard 7-row triangle and keeps it in a
+	 * single long; this gameboard keeps larger triangles in as many longs as they need, for stress-testing variants.
+	 * 
+	 * @param geometry The cells and ladders of the gameboard.
+	 */
+	public MultiWordBoard(BoardGeometry geometry) {
+		this.geometry = geometry;
+		cellLadders = new int[geometry.getNumOfCells()][];
+		isLadderCell = new boolean[geometry.getNumOfCells()][];
+		for (int cell = 0; cell < cellLadders.length; cell++) {
+			cellLadders[cell] = geometry.getCellLadders(cell);
+			isLadderCell[cell] = new boolean[cellLadders[cell].length];
+			for (int i = 0; i < cellLadders[cell].length; i++) {
+				long[] ladderMask = geometry.getLadderMask(cellLadders[cell][i]);
+				isLadderCell[cell][i] = (ladderMask[cell / 64] & (0b1L << cell)) != 0;
+			}
+		}
+		isNeutralizable = new boolean[geometry.getNumOfLadders()];
+		for (int ladder = 0; ladder < isNeutralizable.length; ladder++) {
+			isNeutralizable[ladder] = geometry.getNeutralizerCells(ladder).length != 0;
+		}
+		
+		playersMoves = new long[2][geometry.getNumOfWords()];
+		ladderTokens = new int[2][geometry.getNumOfLadders()];
+		neutralizerTokens = new int[2][geometry.getNumOfLadders()];
+		threeTokenLadders = new int[2];
+		fourTokenLadders = new int[2];
+		completedLadders = new int[2];
+	}
+	
+	/**
+	 * Creates a copy of the given gameboard that can be changed independently of it.
+	 * 
+	 * @param board The gameboard to copy.
+	 */
+	public MultiWordBoard(MultiWordBoard board) {
+		geometry = board.geometry;
+		cellLadders = board.cellLadders;
+		isLadderCell = board.isLadderCell;
+		isNeutralizable = board.isNeutralizable;
+		playersMoves = new long[][] {board.playersMoves[0].clone(), board.playersMoves[1].clone()};
+		ladderTokens = new int[][] {board.ladderTokens[0].clone(), board.ladderTokens[1].clone()};
+		neutralizerTokens = new int[][] {board.neutralizerTokens[0].clone(), board.neutralizerTokens[1].clone()};
+		threeTokenLadders = board.threeTokenLadders.clone();
+		fourTokenLadders = board.fourTokenLadders.clone();
+		completedLadders = board.completedLadders.clone();
+		numOfTokens = board.numOfTokens;
+	}
+	
+	public BoardGeometry getGeometry() {
+		return geometry;
+	}
+	
+	public boolean hasPlayerWon(Player player) {
+		return completedLadders[player.getIndex()] > 0;
+	}
+	
+	/**
+	 * Counts the live ladders of the player holding the given number of its tokens, like Board.getNumOfLadders.
+	 * 
+	 * @param player The player to be considered for the counting of ladders.
+	 * @param numberOfTokens The number of tokens that should be in a ladder.
+	 * @return The number of ladders on the entire gameboard.
+	 */
+	public int getNumOfLadders(Player player, int numberOfTokens) {
+		switch (numberOfTokens) { // These counts are maintained incrementally.
+		case 3:
+			return threeTokenLadders[player.getIndex()];
+		case 4:
+			return fourTokenLadders[player.getIndex()];
+		case 5:
+			return completedLadders[player.getIndex()];
+		default:
+			int ladderCounter = 0;
+			for (int ladder = 0; ladder < geometry.getNumOfLadders(); ladder++) {
+				if (isLive(ladder, player.getIndex()) && (ladderTokens[player.getIndex()][ladder] == numberOfTokens)) {
+					ladderCounter++;
+				}
+			}
+			return ladderCounter;
+		}
+	}
+	
+	/**
+	 * Checks whether the opponent of the player at the given index has no token on the ladder and hasn't neutralized it.
+	 * 
+	 * @param ladder The index of the ladder.
+	 * @param playerIndex The index of the player.
+	 * @return Whether the ladder can still be completed by the player.
+	 */
+	private boolean isLive(int ladder, int playerIndex) {
+		int opponentIndex = 1 - playerIndex;
+		return (ladderTokens[opponentIndex][ladder] == 0) && !(isNeutralizable[ladder] && (neutralizerTokens[opponentIndex][ladder] == 2));
+	}
+	
+	/**
+	 * Adds (delta = 1) or removes (delta = -1) the contribution of every ladder touching the given cell to the
+	 * running ladder counts, as Board does. It is called with -1 before the cell changes and with 1 after it changes.
+	 * 
+	 * @param cell The bit index of the cell that is changing.
+	 * @param delta The amount to add to the count of each live ladder.
+	 */
+	private void updateLadderCounts(int cell, int delta) {
+		for (int ladder : cellLadders[cell]) {
+			for (int i = 0; i < playersMoves.length; i++) {
+				if (!isLive(ladder, i)) {
+					continue;
+				}
+				switch (ladderTokens[i][ladder]) {
+				case 3:
+					threeTokenLadders[i] += delta;
+					break;
+				case 4:
+					fourTokenLadders[i] += delta;
+					break;
+				case 5:
+					completedLadders[i] += delta;
+					break;
+				default:
+					break;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Adds a token of the player at the given index to the per-ladder counts of every ladder touching the cell.
+	 * 
+	 * @param cell The bit index of the cell.
+	 * @param playerIndex The index of the player.
+	 * @param delta 1 when the token is set, -1 when it is removed.
+	 */
+	private void updateLadderTokens(int cell, int playerIndex, int delta) {
+		for (int i = 0; i < cellLadders[cell].length; i++) {
+			if (isLadderCell[cell][i]) {
+				ladderTokens[playerIndex][cellLadders[cell][i]] += delta;
+			}
+			else {
+				neutralizerTokens[playerIndex][cellLadders[cell][i]] += delta;
+			}
+		}
+	}
+	
+	/**
+	 * Sets a token of the player on the cell at the given bit index.
+	 * 
+	 * @param index The bit index of the cell.
+	 * @param player The player to set the token for.
+	 * @return Whether the cell was empty.
+	 */
+	public boolean setMoveOnBoard(int index, Player player) {
+		if (isMoveTaken(index)) {
+			return false;
+		}
+		updateLadderCounts(index, -1);
+		playersMoves[player.getIndex()][index / 64] |= 0b1L << index;
+		updateLadderTokens(index, player.getIndex(), 1);
+		updateLadderCounts(index, 1);
+		numOfTokens++;
+		return true;
+	}
+	
+	/**
+	 * Removes the token on the cell at the given bit index, if there is one.
+	 * 
+	 * @param index The bit index of the cell.
+	 */
+	public void removeMoveFromBoard(int index) {
+		for (int i = 0; i < playersMoves.length; i++) {
+			if ((playersMoves[i][index / 64] & (0b1L << index)) != 0) {
+				updateLadderCounts(index, -1);
+				playersMoves[i][index / 64] &= ~(0b1L << index);
+				updateLadderTokens(index, i, -1);
+				updateLadderCounts(index, 1);
+				numOfTokens--;
+			}
+		}
+	}
+	
+	public boolean isMoveTaken(int index) {
+		return ((playersMoves[0][index / 64] | playersMoves[1][index / 64]) & (0b1L << index)) != 0;
+	}
+	
+	/**
+	 * Returns the cells where the given player would win the game by setting a token, which are the missing cells of
+	 * the player's live ladders holding 4 tokens.
+	 * 
+	 * @param player The player to find the winning cells of.
+	 * @return The multi-word bit literal of the winning cells.
+	 */
+	public long[] getWinningCells(Player player) {
+		long[] winningCells = new long[geometry.getNumOfWords()];
+		if (fourTokenLadders[player.getIndex()] == 0) {
+			return winningCells;
+		}
+		for (int ladder = 0; ladder < geometry.getNumOfLadders(); ladder++) {
+			if ((ladderTokens[player.getIndex()][ladder] == 4) && isLive(ladder, player.getIndex())) {
+				for (int cell : geometry.getLadderCells(ladder)) {
+					if (!isMoveTaken(cell)) {
+						winningCells[cell / 64] |= 0b1L << cell;
+					}
+				}
+			}
+		}
+		return winningCells;
+	}
+	
+	/**
+	 * Returns the tokens of the given player.
+	 * 
+	 * @param player The player whose tokens are returned.
+	 * @return A copy of the multi-word bit literal of the player's tokens.
+	 */
+	public long[] getPlayerMoves(Player player) {
+		return playersMoves[player.getIndex()].clone();
+	}
+	
+	/**
+	 * Returns the cells that neither player has set a token on.
+	 * 
+	 * @return The multi-word bit literal of the empty cells.
+	 */
+	public long[] getEmptyCells() {
+		long[] emptyCells = new long[geometry.getNumOfWords()];
+		for (int word = 0; word < emptyCells.length; word++) {
+			int numOfBits = Math.min(64, geometry.getNumOfCells() - (word * 64));
+			long wordMask = (numOfBits == 64)? -1L : (0b1L << numOfBits) - 1;
+			emptyCells[word] = ~(playersMoves[0][word] | playersMoves[1][word]) & wordMask;
+		}
+		return emptyCells;
+	}
+	
+	public int getNumOfEmptyCells() {
+		return geometry.getNumOfCells() - numOfTokens;
+	}
+	
+	public boolean isFull() {
+		return numOfTokens == geometry.getNumOfCells();
+	}
+	
+	/**
+	 * Checks that the counts kept up to date by setMoveOnBoard and removeMoveFromBoard match the counts recomputed
+	 * from the tokens on the gameboard. It is slow and meant for testing.
+	 * 
+	 * @return Whether the incremental state is consistent with the tokens on the gameboard.
+	 */
+	public boolean isConsistent() {
+		int[][] expectedLadderCounts = new int[2][6];
+		int expectedNumOfTokens = 0;
+		for (int i = 0; i < playersMoves.length; i++) {
+			for (long word : playersMoves[i]) {
+				expectedNumOfTokens += Long.bitCount(word);
+			}
+		}
+		for (int ladder = 0; ladder < geometry.getNumOfLadders(); ladder++) {
+			long[] ladderMask = geometry.getLadderMask(ladder);
+			long[] neutralizerMask = geometry.getNeutralizerMask(ladder);
+			for (int i = 0; i < playersMoves.length; i++) {
+				int tokens = 0;
+				int neutralizers = 0;
+				for (int word = 0; word < ladderMask.length; word++) {
+					tokens += Long.bitCount(ladderMask[word] & playersMoves[i][word]);
+					neutralizers += Long.bitCount(neutralizerMask[word] & playersMoves[i][word]);
+				}
+				if ((tokens != ladderTokens[i][ladder]) || (neutralizers != neutralizerTokens[i][ladder])) {
+					return false;
+				}
+			}
+			for (int i = 0; i < playersMoves.length; i++) {
+				if (isLive(ladder, i)) {
+					expectedLadderCounts[i][ladderTokens[i][ladder]]++;
+				}
+			}
+		}
+		for (int i = 0; i < playersMoves.length; i++) {
+			if ((expectedLadderCounts[i][3] != threeTokenLadders[i]) || (expectedLadderCounts[i][4] != fourTokenLadders[i])
+				|| (expectedLadderCounts[i][5] != completedLadders[i])) {
+				return false;
+			}
+			for (int word = 0; word < playersMoves[i].length; word++) {
+				if ((playersMoves[i][word] & playersMoves[1 - i][word]) != 0) {
+					return false;
+				}
+			}
+		}
+		return expectedNumOfTokens == numOfTokens;
+	}
+}
@@ -0,0 +1,156 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+
+public class OpeningBook {
+	// The file starts with a header of 16 bytes: MAGIC, VERSION, the number of entries and the depth the
+	// positions were searched to. The entries follow, sorted by key so they can be found by binary search.
+	private static final int MAGIC = 0x504C4F42; // "PLOB"
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 16;
+	
+	// Every entry is made of the canonical key of a position (8 bytes), the bit index of its best move in the
+	// canonical orientation (1 byte), a byte left unused and the score of the move (2 bytes).
+	private static final int BYTES_PER_ENTRY = 12;
+	private static final int MOVE_OFFSET = 8;
+	private static final int SCORE_OFFSET = 10;
+	
+	// The mapped file. It is only read with absolute gets, which don't change its position, so a single book can
+	// be probed by any number of threads at once.
+	private final ByteBuffer buffer;
+	private final int numOfEntries;
+	private final int depth;
+	
+	private OpeningBook(ByteBuffer buffer) {
+		if ((buffer.capacity() < HEADER_BYTES) || (buffer.getInt(0) != MAGIC) || (buffer.getInt(4) != VERSION)) {
+			throw new IllegalArgumentException("Not an opening book.");
+		}
+		this.buffer = buffer;
+		this.numOfEntries = buffer.getInt(8);
+		this.depth = buffer.getInt(12);
+		if (buffer.capacity() != HEADER_BYTES + ((long) numOfEntries * BYTES_PER_ENTRY)) {
+			throw new IllegalArgumentException("The opening book is truncated.");
+		}
+	}
+	
+	/**
+	 * Maps an opening book file into memory, read-only. Nothing is parsed: the entries are read from the mapping
+	 * when they are looked up, so opening a book is instant and every process using the same book shares the pages
+	 * of the file cached by the operating system.
+	 * 
+	 * @param path The book file.
+	 * @return The opening book.
+	 * @throws IOException If the file can't be read.
+	 */
+	public static OpeningBook open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new OpeningBook(buffer);
+		}
+	}
+	
+	/**
+	 * Writes an opening book file.
+	 * 
+	 * @param path The book file.
+	 * @param entries The best move of every position, with its score, by the canonical key of the position.
+	 * The moves are in the canonical orientation of their positions.
+	 * @param depth The depth the positions were searched to.
+	 * @throws IOException If the file can't be written.
+	 */
+	public static void write(Path path, Map<Long, Move> entries, int depth) throws IOException {
+		long[] keys = new long[entries.size()];
+		int numOfKeys = 0;
+		for (long key : entries.keySet()) {
+			keys[numOfKeys++] = key;
+		}
+		Arrays.sort(keys);
+		try (OutputStream file = Files.newOutputStream(path);
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(file))) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(keys.length);
+			output.writeInt(depth);
+			for (long key : keys) {
+				Move move = entries.get(key);
+				output.writeLong(key);
+				output.writeByte(move.getIndex());
+				output.writeByte(0);
+				output.writeShort(move.getScore());
+			}
+		}
+	}
+	
+	/**
+	 * Looks up the best move of the position in the book.
+	 * 
+	 * @param board The gameboard.
+	 * @param playerToMove The player to move.
+	 * @return The best move, with its score, or null if the position is not in the book.
+	 */
+	public Move getMove(Board board, Player playerToMove) {
+		int entry = find(board.getCanonicalKey(playerToMove));
+		if (entry < 0) {
+			return null;
+		}
+		int offset = HEADER_BYTES + (entry * BYTES_PER_ENTRY);
+		int index = buffer.get(offset + MOVE_OFFSET);
+		if (board.isCanonicalMirrored()) {
+			index = Board.mirrorCell(index);
+		}
+		if (board.isMoveTaken(index)) { // Only possible if two positions share a key.
+			return null;
+		}
+		Move move = new Move();
+		move.setIndex(index);
+		move.setScore(buffer.getShort(offset + SCORE_OFFSET));
+		return move;
+	}
+	
+	/**
+	 * Finds an entry by binary search.
+	 * 
+	 * @param key The canonical key of the position.
+	 * @return The number of the entry, or -1 if the key is not in the book.
+	 */
+	private int find(long key) {
+		int low = 0;
+		int high = numOfEntries - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			long middleKey = buffer.getLong(HEADER_BYTES + (middle * BYTES_PER_ENTRY));
+			if (middleKey < key) {
+				low = middle + 1;
+			}
+			else if (middleKey > key) {
+				high = middle - 1;
+			}
+			else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+	
+	public int getNumOfEntries() {
+		return numOfEntries;
+	}
+	
+	public int getDepth() {
+		return depth;
+	}
+}
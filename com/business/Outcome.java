@@ -0,0 +1,18 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+public enum Outcome {
+	// The player to move can force a win.
+	WIN,
+	
+	// The opponent can force a win whatever the player to move does.
+	LOSS,
+	
+	// Neither player can force a win, so the gameboard fills up with perfect play.
+	DRAW,
+	
+	// The position was not solved within the limits of the solver.
+	UNKNOWN
+}
@@ -0,0 +1,127 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ParallelSearch implements Engine {
+	// The distance, in moves, by which each helper thread rotates its move order relative to the previous one.
+	private static final int MOVE_ORDER_ROTATION = 7;
+	
+	private Board board;
+	
+	// The main search runs on the calling thread over the real gameboard. Its result is the one that is played.
+	private AI mainSearch;
+	
+	// The total number of threads searching, including the calling thread.
+	private int numOfThreads;
+	
+	// Runs the helper searches. It is only created when more than one thread is used.
+	private ExecutorService helperExecutor;
+	
+	/**
+	 * Creates a Lazy SMP search: helper threads search copies of the gameboard with the same iterative deepening
+	 * as the main search, but in a different move order. They share the main search's transposition table, so
+	 * the main search finds the results of the helpers in the table and completes each depth sooner.
+	 * With a single thread, the search is exactly the main search.
+	 * 
+	 * @param board The gameboard to search.
+	 * @param mainSearch The search over the gameboard that runs on the calling thread.
+	 * @param numOfThreads The total number of threads to search with.
+	 */
+	public ParallelSearch(Board board, AI mainSearch, int numOfThreads) {
+		if (numOfThreads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed to search.");
+		}
+		this.board = board;
+		this.mainSearch = mainSearch;
+		this.numOfThreads = numOfThreads;
+		if (numOfThreads > 1) {
+			helperExecutor = Executors.newFixedThreadPool(numOfThreads - 1, runnable -> {
+				Thread thread = new Thread(runnable, "search-helper");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+	
+	public int getNumOfThreads() {
+		return numOfThreads;
+	}
+	
+	/**
+	 * Searches for the best move on all threads. The main search decides when to stop, after which
+	 * the helpers are stopped and their nodes and statistics are added to those of the main search.
+	 * 
+	 * @param player The player to find a move for.
+	 * @param limits The depth, time and node limits of the main search.
+	 * @return The result of the main search, with the nodes visited by every thread.
+	 */
+	@Override
+	public SearchResult search(Player player, SearchLimits limits) {
+		if (helperExecutor == null) {
+			return mainSearch.search(player, limits);
+		}
+		
+		SearchLimits helperLimits = new SearchLimits(limits.getMaxDepth());
+		List<AI> helpers = new ArrayList<AI>();
+		List<Future<SearchResult>> helperResults = new ArrayList<Future<SearchResult>>();
+		for (int i = 1; i < numOfThreads; i++) {
+			AI helper = mainSearch.createHelper(i * MOVE_ORDER_ROTATION);
+			helpers.add(helper);
+			helperResults.add(helperExecutor.submit(() -> helper.search(player, helperLimits)));
+		}
+		
+		SearchResult result = mainSearch.search(player, limits);
+		long nodes = result.getNodes();
+		for (AI helper : helpers) {
+			helper.stop();
+		}
+		for (int i = 0; i < helperResults.size(); i++) {
+			try {
+				nodes += helperResults.get(i).get().getNodes();
+				mainSearch.getStatistics().add(helpers.get(i).getStatistics());
+			}
+			catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+			}
+			catch (ExecutionException ee) {
+				throw new IllegalStateException("A helper search failed.", ee.getCause());
+			}
+		}
+		return new SearchResult(result.getMove(), result.getDepth(), nodes, result.getElapsedMillis());
+	}
+	
+	/**
+	 * Asks the main search to stop, after which the helpers are stopped as well.
+	 */
+	@Override
+	public void stop() {
+		mainSearch.stop();
+	}
+	
+	/**
+	 * Returns the statistics of the last search, with the counters of every thread.
+	 * 
+	 * @return The statistics of the main search.
+	 */
+	@Override
+	public SearchStatistics getStatistics() {
+		return mainSearch.getStatistics();
+	}
+	
+	/**
+	 * Stops the helper threads. The search can't be used afterwards.
+	 */
+	public void shutdown() {
+		if (helperExecutor != null) {
+			helperExecutor.shutdownNow();
+		}
+	}
+}
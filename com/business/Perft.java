@@ -0,0 +1,53 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+public class Perft {
+	private Board board;
+	
+	// Whether the incremental state of the gameboard is checked at every position.
+	private boolean verify;
+	
+	/**
+	 * Creates a node counter over the given gameboard. The gameboard is changed while counting but is
+	 * always restored afterward.
+	 * 
+	 * @param board The gameboard to count the positions of.
+	 * @param verify Whether to check the incremental state of the gameboard at every position, which is much slower.
+	 */
+	public Perft(Board board, boolean verify) {
+		this.board = board;
+		this.verify = verify;
+	}
+	
+	/**
+	 * Counts the positions reached after exactly the given number of moves, the way a full-width search with no
+	 * pruning would visit them. A position where the last player to move has won, or where the gameboard is full,
+	 * is counted as a leaf. Comparing the counts with known values checks move generation and win detection, and
+	 * timing them measures the speed of setting and removing moves.
+	 * 
+	 * @param player The player to move.
+	 * @param depth The number of moves to make.
+	 * @return The number of leaf positions.
+	 */
+	public long count(Player player, int depth) {
+		if (verify && !board.isConsistent()) {
+			throw new IllegalStateException("The incremental state of the gameboard is inconsistent.");
+		}
+		if (depth == 0 || board.isFull() || board.hasPlayerWon(player.getNextPlayer())) {
+			return 1;
+		}
+		
+		long leaves = 0;
+		long movesLeft = board.getEmptyCells();
+		while (movesLeft != 0) {
+			int move = Long.numberOfTrailingZeros(movesLeft);
+			movesLeft &= movesLeft - 1;
+			board.setMoveOnBoard(move, player);
+			leaves += count(player.getNextPlayer(), depth - 1);
+			board.removeMoveFromBoard(move);
+		}
+		return leaves;
+	}
+}
@@ -8,6 +8,9 @@ public enum Player {
 	PLAYER_ONE(0),
 	PLAYER_TWO(1);
 	
+	// Player.values() creates a new array on every call, so it is only called once.
+	private static final Player[] PLAYERS = values();
+	
 	private int index;
 	
 	private Player(int index) {
@@ -19,10 +22,9 @@ public enum Player {
 	}
 	
 	public Player getNextPlayer() {
-		Player players[] = Player.values();  
         int ordinal = this.ordinal();  
-        ordinal = ++ordinal % players.length;  
-        return players[ordinal]; 
+        ordinal = ++ordinal % PLAYERS.length;  
+        return PLAYERS[ordinal]; 
 	}
 	
 }
@@ -0,0 +1,400 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+import java.util.Arrays;
+
+public class ProofNumberSearch {
+	// The default memory budget of the proof table.
+	public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+	
+	// A proof or disproof number this large is infinite. A position whose proof number is 0 (and disproof
+	// number infinite) is proved, and one whose disproof number is 0 (and proof number infinite) is disproved.
+	private static final int INFINITY = 1 << 30;
+	
+	// Returned as the best cell of the root when it has none.
+	private static final int NO_CELL = -1;
+	
+	// A position has different proof numbers depending on which player is trying to win, so this key is XORed
+	// into the key of every position when player two is the attacker.
+	private static final long PLAYER_TWO_ATTACKER_KEY = 0x6A09_E667_F3BC_C909L;
+	
+	private Board board;
+	private ProofTable table;
+	
+	// The solve gives up after this many positions when it is larger than 0.
+	private long nodeLimit;
+	
+	// The player trying to win in the current pass of the solve. The other player, the defender, only has to
+	// keep the attacker from winning, so a full gameboard is a success for the defender.
+	private Player attacker;
+	
+	private long nodes;
+	private boolean aborted;
+	
+	// The proof number of the root and its best child when it was last searched.
+	private int rootProof;
+	private int rootBestCell;
+	
+	// The children of every position on the current path, one row per ply: the cell played, the key of the child
+	// and its proof and disproof numbers. The numbers are read from the proof table once, when the children are
+	// generated, and kept here while the position is searched, so that entries replaced in the table meanwhile
+	// are not lost for the position being searched.
+	private final int[][] childCells = new int[50][49];
+	private final long[][] childKeys = new long[50][49];
+	private final int[][] childProofs = new int[50][49];
+	private final int[][] childDisproofs = new int[50][49];
+	
+	public ProofNumberSearch(Board board) {
+		this(board, DEFAULT_MEMORY_BUDGET);
+	}
+	
+	/**
+	 * Creates a depth-first proof-number search (df-pn) solver of the gameboard. Unlike the minimax search,
+	 * it has no depth limit and no heuristic: it proves the exact value of a position by always expanding the
+	 * move that is cheapest to prove or disprove, guided by the proof and disproof numbers of the positions
+	 * seen so far, which are kept in a table of bounded size.
+	 * 
+	 * @param board The gameboard to solve.
+	 * @param memoryBudget The maximum number of bytes used by the proof table.
+	 */
+	public ProofNumberSearch(Board board, long memoryBudget) {
+		this.board = board;
+		this.table = new ProofTable(memoryBudget);
+	}
+	
+	/**
+	 * Sets the number of positions after which a solve gives up and returns UNKNOWN.
+	 * 
+	 * @param nodeLimit The limit, or 0 for no limit.
+	 */
+	public void setNodeLimit(long nodeLimit) {
+		this.nodeLimit = nodeLimit;
+	}
+	
+	/**
+	 * Solves the position for the player to move. The first pass tries to prove that the player wins. If that
+	 * is disproved, the second pass tries to prove that the opponent wins, and the position is a draw when that
+	 * is disproved too. The proof table is kept between solves, so positions solved before are found at once.
+	 * 
+	 * @param player The player to move.
+	 * @return The outcome of the position, with the winning move of a win or a drawing move of a draw.
+	 */
+	public SolveResult solve(Player player) {
+		if (board.hasPlayerWon(Player.PLAYER_ONE) || board.hasPlayerWon(Player.PLAYER_TWO) || board.isFull()) {
+			throw new IllegalStateException("The game is over.");
+		}
+		long startTime = System.currentTimeMillis();
+		nodes = 0;
+		aborted = false;
+		
+		Outcome outcome = Outcome.UNKNOWN;
+		int cell = NO_CELL;
+		attacker = player;
+		search(player, INFINITY, INFINITY, 0);
+		if (!aborted) {
+			if (rootProof == 0) {
+				outcome = Outcome.WIN;
+				cell = rootBestCell;
+			}
+			else {
+				attacker = player.getNextPlayer();
+				search(player, INFINITY, INFINITY, 0);
+				if (!aborted) {
+					if (rootProof == 0) {
+						outcome = Outcome.DRAW;
+						cell = rootBestCell;
+					}
+					else {
+						outcome = Outcome.LOSS;
+					}
+				}
+			}
+		}
+		
+		Move move = null;
+		if (cell != NO_CELL) {
+			move = new Move();
+			move.setIndex(cell);
+		}
+		return new SolveResult(outcome, move, nodes, System.currentTimeMillis() - startTime);
+	}
+	
+	public long getNodes() {
+		return nodes;
+	}
+	
+	/**
+	 * Clears the proof table.
+	 */
+	public void clear() {
+		table.clear();
+	}
+	
+	/**
+	 * Searches the position until its proof number reaches the proof threshold or its disproof number reaches
+	 * the disproof threshold. The numbers are those of the goal of the player to move: winning for the attacker
+	 * and not losing for the defender. The proof number of a position is the smallest disproof number of its
+	 * children, since one refuted reply is enough, and its disproof number is the sum of their proof numbers.
+	 * The child with the smallest disproof number is searched with thresholds that make it return as soon as
+	 * another child becomes the better choice, and the numbers found are stored in the proof table.
+	 * 
+	 * @param playerToMove The player to move.
+	 * @param proofThreshold The proof number at which to return.
+	 * @param disproofThreshold The disproof number at which to return.
+	 * @param ply The number of moves from the root.
+	 */
+	private void search(Player playerToMove, int proofThreshold, int disproofThreshold, int ply) {
+		long startNodes = nodes++;
+		if ((nodeLimit > 0) && (nodes > nodeLimit)) {
+			aborted = true;
+			return;
+		}
+		long key = getKey(playerToMove);
+		int numOfChildren = generateChildren(playerToMove, ply);
+		
+		int proof;
+		int disproof;
+		int bestChild;
+		while (true) {
+			proof = INFINITY;
+			disproof = 0;
+			bestChild = -1;
+			int bestChildProof = 0;
+			int secondDisproof = INFINITY;
+			for (int i = 0; i < numOfChildren; i++) {
+				int childProof = childProofs[ply][i];
+				int childDisproof = childDisproofs[ply][i];
+				disproof = (int) Math.min((long) disproof + childProof, INFINITY);
+				if (childDisproof < proof) {
+					secondDisproof = proof;
+					proof = childDisproof;
+					bestChild = i;
+					bestChildProof = childProof;
+				}
+				else if (childDisproof < secondDisproof) {
+					secondDisproof = childDisproof;
+				}
+			}
+			if ((proof >= proofThreshold) || (disproof >= disproofThreshold) || aborted) {
+				break;
+			}
+			
+			int childProofThreshold = (int) Math.min((long) disproofThreshold - disproof + bestChildProof, INFINITY);
+			int childDisproofThreshold = Math.min(proofThreshold, secondDisproof + 1);
+			int cell = childCells[ply][bestChild];
+			board.setMoveOnBoard(cell, playerToMove);
+			search(playerToMove.getNextPlayer(), childProofThreshold, childDisproofThreshold, ply + 1);
+			board.removeMoveFromBoard(cell);
+			int slot = table.find(childKeys[ply][bestChild]);
+			if (slot >= 0) {
+				setChildNumbers(ply, bestChild, table.getProof(slot), table.getDisproof(slot));
+			}
+		}
+		if (ply == 0) {
+			rootProof = proof;
+			rootBestCell = (bestChild >= 0)? childCells[ply][bestChild] : NO_CELL;
+		}
+		table.store(key, proof, disproof, nodes - startNodes);
+	}
+	
+	/**
+	 * Generates the children of the position with their proof and disproof numbers. The numbers of a child where
+	 * the game is over, or where its player to move has a winning cell, are known without searching it, and those
+	 * of the other children are read from the proof table, or set to 1 for children that are not in it. When the
+	 * player to move has a winning cell, only the winning cells are generated, and when only the opponent has one,
+	 * only the cells that can stop it are generated, since every other move loses at once.
+	 * 
+	 * @param playerToMove The player to move.
+	 * @param ply The number of moves from the root.
+	 * @return The number of children.
+	 */
+	private int generateChildren(Player playerToMove, int ply) {
+		Player opponent = playerToMove.getNextPlayer();
+		long candidates = board.getWinningCells(playerToMove);
+		if (candidates == 0) {
+			candidates = board.getEmptyCells();
+			if (board.getWinningCells(opponent) != 0) {
+				candidates &= board.getDefendingCells(opponent);
+			}
+		}
+		
+		int numOfChildren = 0;
+		for (long cells = candidates; cells != 0; cells &= cells - 1) {
+			int cell = Long.numberOfTrailingZeros(cells);
+			board.setMoveOnBoard(cell, playerToMove);
+			childCells[ply][numOfChildren] = cell;
+			childKeys[ply][numOfChildren] = getKey(opponent);
+			if (board.hasPlayerWon(playerToMove)) {
+				setChildNumbers(ply, numOfChildren, INFINITY, 0);
+			}
+			else if (board.isFull()) {
+				if (opponent == attacker) {
+					setChildNumbers(ply, numOfChildren, INFINITY, 0);
+				}
+				else {
+					setChildNumbers(ply, numOfChildren, 0, INFINITY);
+				}
+			}
+			else if (board.getWinningCells(opponent) != 0) {
+				setChildNumbers(ply, numOfChildren, 0, INFINITY);
+			}
+			else {
+				int slot = table.find(childKeys[ply][numOfChildren]);
+				if (slot >= 0) {
+					setChildNumbers(ply, numOfChildren, table.getProof(slot), table.getDisproof(slot));
+				}
+				else {
+					setChildNumbers(ply, numOfChildren, 1, 1);
+				}
+			}
+			board.removeMoveFromBoard(cell);
+			numOfChildren++;
+		}
+		return numOfChildren;
+	}
+	
+	private void setChildNumbers(int ply, int child, int proof, int disproof) {
+		childProofs[ply][child] = proof;
+		childDisproofs[ply][child] = disproof;
+	}
+	
+	/**
+	 * Returns the key of the position for the current attacker. Mirrored positions share their key.
+	 * 
+	 * @param playerToMove The player to move.
+	 * @return The key of the position.
+	 */
+	private long getKey(Player playerToMove) {
+		long key = board.getCanonicalKey(playerToMove);
+		return (attacker == Player.PLAYER_TWO)? key ^ PLAYER_TWO_ATTACKER_KEY : key;
+	}
+	
+	/**
+	 * The proof and disproof numbers of the positions searched, in buckets of 4 entries. Every entry also holds
+	 * the number of positions searched to find its numbers, which is how valuable it is to keep. A new position
+	 * replaces the least valuable entry of its bucket, and when the table gets full the least valuable entries of
+	 * the whole table are removed, so that the positions that took the most work stay.
+	 */
+	private static class ProofTable {
+		// Every entry is made of a key, a proof number, a disproof number and a work count.
+		private static final int BYTES_PER_ENTRY = 24;
+		private static final int BUCKET_SIZE = 4;
+		
+		// The table is collected when this fraction of it is full, and collecting removes about half of the entries.
+		private static final double COLLECT_LOAD = 0.9;
+		
+		private final long[] keys;
+		private final int[] proofs;
+		private final int[] disproofs;
+		
+		// The work of an entry is never 0, so a work of 0 is an empty slot.
+		private final long[] work;
+		
+		private final int bucketMask;
+		private final int collectThreshold;
+		private int numOfEntries;
+		
+		private ProofTable(long memoryBudget) {
+			if (memoryBudget < BYTES_PER_ENTRY * BUCKET_SIZE) {
+				throw new IllegalArgumentException("The memory budget must hold at least one bucket.");
+			}
+			int numOfBuckets = (int) Long.highestOneBit(Math.min(memoryBudget / (BYTES_PER_ENTRY * BUCKET_SIZE), 1L << 26));
+			int capacity = numOfBuckets * BUCKET_SIZE;
+			this.keys = new long[capacity];
+			this.proofs = new int[capacity];
+			this.disproofs = new int[capacity];
+			this.work = new long[capacity];
+			this.bucketMask = numOfBuckets - 1;
+			this.collectThreshold = (int) (capacity * COLLECT_LOAD);
+		}
+		
+		/**
+		 * Finds the slot of the given key.
+		 * 
+		 * @param key The key of the position.
+		 * @return The slot, or -1 if the position is not in the table.
+		 */
+		private int find(long key) {
+			int bucket = ((int) key & bucketMask) * BUCKET_SIZE;
+			for (int slot = bucket; slot < bucket + BUCKET_SIZE; slot++) {
+				if ((work[slot] != 0) && (keys[slot] == key)) {
+					return slot;
+				}
+			}
+			return -1;
+		}
+		
+		private int getProof(int slot) {
+			return proofs[slot];
+		}
+		
+		private int getDisproof(int slot) {
+			return disproofs[slot];
+		}
+		
+		/**
+		 * Stores the numbers of a position, adding the work to that of its entry if it is already in the table.
+		 * 
+		 * @param key The key of the position.
+		 * @param proof The proof number.
+		 * @param disproof The disproof number.
+		 * @param newWork The number of positions searched to find the numbers.
+		 */
+		private void store(long key, int proof, int disproof, long newWork) {
+			int slot = find(key);
+			if (slot >= 0) {
+				work[slot] += newWork;
+			}
+			else {
+				if (numOfEntries >= collectThreshold) {
+					collect();
+				}
+				int bucket = ((int) key & bucketMask) * BUCKET_SIZE;
+				slot = bucket;
+				for (int i = bucket; i < bucket + BUCKET_SIZE; i++) {
+					if (work[i] < work[slot]) {
+						slot = i;
+					}
+				}
+				if (work[slot] == 0) {
+					numOfEntries++;
+				}
+				keys[slot] = key;
+				work[slot] = newWork;
+			}
+			proofs[slot] = proof;
+			disproofs[slot] = disproof;
+		}
+		
+		/**
+		 * Removes about half of the entries, those with the least work. The work counts are sorted into powers of 2,
+		 * and every entry up to the power of 2 that holds the median is removed.
+		 */
+		private void collect() {
+			int[] numOfEntriesByLog = new int[64];
+			for (long entryWork : work) {
+				if (entryWork != 0) {
+					numOfEntriesByLog[63 - Long.numberOfLeadingZeros(entryWork)]++;
+				}
+			}
+			int maxLog = 0;
+			for (int count = numOfEntriesByLog[0]; count < numOfEntries / 2; count += numOfEntriesByLog[maxLog]) {
+				maxLog++;
+			}
+			long maxRemovedWork = (2L << maxLog) - 1;
+			for (int slot = 0; slot < work.length; slot++) {
+				if ((work[slot] != 0) && (work[slot] <= maxRemovedWork)) {
+					work[slot] = 0;
+					numOfEntries--;
+				}
+			}
+		}
+		
+		private void clear() {
+			Arrays.fill(work, 0);
+			numOfEntries = 0;
+		}
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+public class ScalarBatchEvaluator implements BatchEvaluator {
+	private static final long[] LADDER_MASKS = Board.getLadderMasks();
+	private static final long[] NEUTRALIZER_MASKS = Board.getNeutralizerMasks();
+	
+	/**
+	 * Counts the ladders of one position at a time with Long.bitCount, the way the gameboard does.
+	 */
+	@Override
+	public void evaluate(long[] playerMoves, long[] opponentMoves, int numOfPositions, int[] threeTokenLadders, int[] fourTokenLadders,
+		int[] completedLadders) {
+		evaluate(playerMoves, opponentMoves, 0, numOfPositions, threeTokenLadders, fourTokenLadders, completedLadders);
+	}
+	
+	/**
+	 * Counts the ladders of the positions in a range of the batch. VectorBatchEvaluator uses it for the positions
+	 * left over after the last full vector.
+	 * 
+	 * @param playerMoves The bit literal of the player's tokens in every position.
+	 * @param opponentMoves The bit literal of the opponent's tokens in every position.
+	 * @param from The first position of the range.
+	 * @param to The position after the last one of the range.
+	 * @param threeTokenLadders Set to the number of live ladders holding 3 of the player's tokens in every position.
+	 * @param fourTokenLadders Set to the number of live ladders holding 4 of the player's tokens in every position.
+	 * @param completedLadders Set to the number of live ladders completed by the player in every position.
+	 */
+	static void evaluate(long[] playerMoves, long[] opponentMoves, int from, int to, int[] threeTokenLadders, int[] fourTokenLadders,
+		int[] completedLadders) {
+		for (int position = from; position < to; position++) {
+			int threeTokens = 0;
+			int fourTokens = 0;
+			int completed = 0;
+			for (int ladder = 0; ladder < LADDER_MASKS.length; ladder++) {
+				if (((LADDER_MASKS[ladder] & opponentMoves[position]) != 0)
+					|| (Long.bitCount(NEUTRALIZER_MASKS[ladder] & opponentMoves[position]) == 2)) {
+					continue;
+				}
+				switch (Long.bitCount(LADDER_MASKS[ladder] & playerMoves[position])) {
+				case 3:
+					threeTokens++;
+					break;
+				case 4:
+					fourTokens++;
+					break;
+				case 5:
+					completed++;
+					break;
+				default:
+					break;
+				}
+			}
+			threeTokenLadders[position] = threeTokens;
+			fourTokenLadders[position] = fourTokens;
+			completedLadders[position] = completed;
+		}
+	}
+}
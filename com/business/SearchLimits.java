@@ -0,0 +1,44 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+public class SearchLimits {
+	// The deepest iteration to search. Iterative deepening also stops once every
+	// empty cell of the gameboard has been searched.
+	private int maxDepth;
+	
+	// The time budget of a move in milliseconds. A value of 0 means no time limit.
+	private long timeBudgetMillis;
+	
+	// The maximum number of positions to visit during a move. A value of 0 means no node limit.
+	private long nodeBudget;
+	
+	public SearchLimits(int maxDepth) {
+		this.maxDepth = maxDepth;
+	}
+	
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+	
+	public void setMaxDepth(int maxDepth) {
+		this.maxDepth = maxDepth;
+	}
+	
+	public long getTimeBudgetMillis() {
+		return timeBudgetMillis;
+	}
+	
+	public void setTimeBudgetMillis(long timeBudgetMillis) {
+		this.timeBudgetMillis = timeBudgetMillis;
+	}
+	
+	public long getNodeBudget() {
+		return nodeBudget;
+	}
+	
+	public void setNodeBudget(long nodeBudget) {
+		this.nodeBudget = nodeBudget;
+	}
+}
@@ -0,0 +1,15 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+public enum SearchMode {
+	// Plain minimax with alpha-beta pruning, where every move is searched with the full window.
+	ALPHA_BETA,
+	
+	// Principal variation search: only the first move of a position is searched with the full window and the
+	// rest are searched with a null window to prove they are no better, and searched again if they are. Each
+	// iteration starts with an aspiration window around the score of the previous one, and late quiet moves
+	// can be searched with reduced depth.
+	PRINCIPAL_VARIATION
+}
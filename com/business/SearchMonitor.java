@@ -0,0 +1,153 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public class SearchMonitor implements SearchStatisticsMXBean {
+	// The name the monitor is registered under on the platform MBean server.
+	public static final String OBJECT_NAME = "com.polarizedladder:type=SearchStatistics";
+	
+	private static SearchMonitor instance;
+	
+	// The totals of every search recorded since the last reset, and a copy of the last search.
+	private final SearchStatistics totals = new SearchStatistics();
+	private final SearchStatistics lastSearch = new SearchStatistics();
+	
+	private SearchMonitor() {
+	}
+	
+	/**
+	 * Returns the monitor of the process, which is registered as an MBean the first time it is needed
+	 * so that the totals can be read with any JMX client (Ex: jconsole).
+	 * 
+	 * @return The monitor.
+	 */
+	public static synchronized SearchMonitor getInstance() {
+		if (instance == null) {
+			instance = new SearchMonitor();
+			try {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(instance, new ObjectName(OBJECT_NAME));
+			}
+			catch (JMException jme) {
+				throw new IllegalStateException("The search statistics could not be registered.", jme);
+			}
+		}
+		return instance;
+	}
+	
+	/**
+	 * Adds the statistics of a finished search to the totals.
+	 * 
+	 * @param statistics The statistics of the search.
+	 */
+	public synchronized void record(SearchStatistics statistics) {
+		totals.add(statistics);
+		totals.addElapsedNanos(statistics.getElapsedNanos());
+		lastSearch.reset();
+		lastSearch.add(statistics);
+		lastSearch.addElapsedNanos(statistics.getElapsedNanos());
+	}
+	
+	@Override
+	public synchronized void reset() {
+		totals.reset();
+		lastSearch.reset();
+	}
+	
+	/**
+	 * Returns a copy of the totals, so that they can be read without holding the monitor.
+	 * 
+	 * @return The totals of every recorded search.
+	 */
+	public synchronized SearchStatistics getTotals() {
+		SearchStatistics copy = new SearchStatistics();
+		copy.add(totals);
+		copy.addElapsedNanos(totals.getElapsedNanos());
+		return copy;
+	}
+	
+	@Override
+	public synchronized long getSearches() {
+		return totals.getSearches();
+	}
+	
+	@Override
+	public synchronized long getNodes() {
+		return totals.getNodes();
+	}
+	
+	@Override
+	public synchronized long getLeafEvaluations() {
+		return totals.getLeafEvaluations();
+	}
+	
+	@Override
+	public synchronized long getCutoffs() {
+		return totals.getCutoffs();
+	}
+	
+	@Override
+	public synchronized double getFirstMoveCutoffRate() {
+		return totals.getFirstMoveCutoffRate();
+	}
+	
+	@Override
+	public synchronized int getMaxDepth() {
+		return totals.getDepth();
+	}
+	
+	@Override
+	public synchronized int getMaxPly() {
+		return totals.getMaxPly();
+	}
+	
+	@Override
+	public synchronized long getTableHits() {
+		return totals.getTableHits();
+	}
+	
+	@Override
+	public synchronized long getTableMisses() {
+		return totals.getTableMisses();
+	}
+	
+	@Override
+	public synchronized double getTableHitRate() {
+		return totals.getTableHitRate();
+	}
+	
+	@Override
+	public synchronized long getTotalMillis() {
+		return totals.getElapsedNanos() / 1000000;
+	}
+	
+	@Override
+	public synchronized long getNodesPerSecond() {
+		return totals.getNodesPerSecond();
+	}
+	
+	@Override
+	public synchronized long getLastSearchNodes() {
+		return lastSearch.getNodes();
+	}
+	
+	@Override
+	public synchronized int getLastSearchDepth() {
+		return lastSearch.getDepth();
+	}
+	
+	@Override
+	public synchronized long getLastSearchMillis() {
+		return lastSearch.getElapsedNanos() / 1000000;
+	}
+	
+	@Override
+	public synchronized long getLastSearchNodesPerSecond() {
+		return lastSearch.getNodesPerSecond();
+	}
+}
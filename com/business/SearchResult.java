@@ -0,0 +1,49 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+public class SearchResult {
+	// The best move of the deepest completed iteration, along with its score.
+	private Move move;
+	
+	// The depth of the deepest completed iteration.
+	private int depth;
+	
+	// The total number of positions visited, including any iteration that was stopped.
+	private long nodes;
+	
+	private long elapsedMillis;
+	
+	public SearchResult(Move move, int depth, long nodes, long elapsedMillis) {
+		this.move = move;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.elapsedMillis = elapsedMillis;
+	}
+	
+	public Move getMove() {
+		return move;
+	}
+	
+	public int getScore() {
+		return move.getScore();
+	}
+	
+	public int getDepth() {
+		return depth;
+	}
+	
+	public long getNodes() {
+		return nodes;
+	}
+	
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+	
+	@Override
+	public String toString() {
+		return "move " + move.getMove() + ", score " + move.getScore() + ", depth " + depth + ", " + nodes + " nodes in " + elapsedMillis + " ms";
+	}
+}
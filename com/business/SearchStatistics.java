@@ -0,0 +1,197 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+import java.util.Arrays;
+
+public class SearchStatistics {
+	// Whether the counters inside the search tree are updated, set with -Dpolarizedladder.statistics=true.
+	// Being a static final, the JIT compiler folds the checks of the flag away so the counters cost nothing when it is off.
+	public static final boolean ENABLED = Boolean.getBoolean("polarizedladder.statistics");
+	
+	// The number of positions in the move list of a position, which is the number of cutoff counters by move index.
+	private static final int MAX_MOVES = 64;
+	
+	// The number of searches the statistics were gathered over.
+	private long searches;
+	
+	// The number of positions visited, whether or not ENABLED is set.
+	private long nodes;
+	
+	// The number of positions that were evaluated by the heuristic, or scored as a win or a draw.
+	private long leafEvaluations;
+	
+	// The number of beta cutoffs caused by the move at each position of the ordered move list.
+	private final long[] cutoffsByMoveIndex = new long[MAX_MOVES];
+	
+	// The deepest completed iteration, and the deepest ply that was visited by any line of the search.
+	private int depth;
+	private int maxPly;
+	
+	// The probes of the transposition table that found the position, that did not, and the hits whose
+	// stored score was used without searching the position.
+	private long tableHits;
+	private long tableMisses;
+	private long tableCutoffs;
+	
+	private long elapsedNanos;
+	
+	/**
+	 * Clears every counter before a new search.
+	 */
+	public void reset() {
+		searches = 0;
+		nodes = 0;
+		leafEvaluations = 0;
+		Arrays.fill(cutoffsByMoveIndex, 0);
+		depth = 0;
+		maxPly = 0;
+		tableHits = 0;
+		tableMisses = 0;
+		tableCutoffs = 0;
+		elapsedNanos = 0;
+	}
+	
+	/**
+	 * Adds the counters of another search to these ones. The elapsed time is left as is, since
+	 * searches that ran at the same time on several threads don't add up.
+	 * 
+	 * @param other The statistics to add.
+	 */
+	public void add(SearchStatistics other) {
+		searches += other.searches;
+		nodes += other.nodes;
+		leafEvaluations += other.leafEvaluations;
+		for (int i = 0; i < MAX_MOVES; i++) {
+			cutoffsByMoveIndex[i] += other.cutoffsByMoveIndex[i];
+		}
+		depth = Math.max(depth, other.depth);
+		maxPly = Math.max(maxPly, other.maxPly);
+		tableHits += other.tableHits;
+		tableMisses += other.tableMisses;
+		tableCutoffs += other.tableCutoffs;
+	}
+	
+	void countLeafEvaluation() {
+		leafEvaluations++;
+	}
+	
+	void countCutoff(int moveIndex) {
+		cutoffsByMoveIndex[moveIndex]++;
+	}
+	
+	void countPly(int ply) {
+		if (ply > maxPly) {
+			maxPly = ply;
+		}
+	}
+	
+	void countTableProbe(boolean hit) {
+		if (hit) {
+			tableHits++;
+		}
+		else {
+			tableMisses++;
+		}
+	}
+	
+	void countTableCutoff() {
+		tableCutoffs++;
+	}
+	
+	/**
+	 * Records the totals of a search once it is done.
+	 * 
+	 * @param nodes The number of positions visited.
+	 * @param depth The deepest completed iteration.
+	 * @param elapsedNanos The time the search took.
+	 */
+	void finishSearch(long nodes, int depth, long elapsedNanos) {
+		this.searches++;
+		this.nodes += nodes;
+		this.depth = Math.max(this.depth, depth);
+		this.elapsedNanos += elapsedNanos;
+	}
+	
+	void addElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos += elapsedNanos;
+	}
+	
+	public long getSearches() {
+		return searches;
+	}
+	
+	public long getNodes() {
+		return nodes;
+	}
+	
+	public long getLeafEvaluations() {
+		return leafEvaluations;
+	}
+	
+	/**
+	 * Returns the number of beta cutoffs caused by the move at the given position of the ordered move list.
+	 * Most cutoffs should happen on the first move when the moves are well ordered.
+	 * 
+	 * @param moveIndex The position in the move list, from 0.
+	 * @return The number of cutoffs.
+	 */
+	public long getCutoffs(int moveIndex) {
+		return cutoffsByMoveIndex[moveIndex];
+	}
+	
+	public long getCutoffs() {
+		long cutoffs = 0;
+		for (long moveIndexCutoffs : cutoffsByMoveIndex) {
+			cutoffs += moveIndexCutoffs;
+		}
+		return cutoffs;
+	}
+	
+	public double getFirstMoveCutoffRate() {
+		long cutoffs = getCutoffs();
+		return (cutoffs > 0)? (double) cutoffsByMoveIndex[0] / cutoffs : 0;
+	}
+	
+	public int getDepth() {
+		return depth;
+	}
+	
+	public int getMaxPly() {
+		return maxPly;
+	}
+	
+	public long getTableHits() {
+		return tableHits;
+	}
+	
+	public long getTableMisses() {
+		return tableMisses;
+	}
+	
+	public long getTableCutoffs() {
+		return tableCutoffs;
+	}
+	
+	public double getTableHitRate() {
+		long probes = tableHits + tableMisses;
+		return (probes > 0)? (double) tableHits / probes : 0;
+	}
+	
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+	
+	public long getNodesPerSecond() {
+		return (elapsedNanos > 0)? (long) (nodes * 1e9 / elapsedNanos) : 0;
+	}
+	
+	@Override
+	public String toString() {
+		return nodes + " nodes, " + getNodesPerSecond() + " nodes/sec, depth " + depth + " (max ply " + maxPly + "), "
+			+ leafEvaluations + " leaf evaluations, " + getCutoffs() + " cutoffs (" + Math.round(getFirstMoveCutoffRate() * 100)
+			+ "% on the first move), table hits " + tableHits + " / misses " + tableMisses + " (" + tableCutoffs + " cutoffs), "
+			+ (elapsedNanos / 1000000) + " ms";
+	}
+}
@@ -0,0 +1,44 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+public interface SearchStatisticsMXBean {
+	long getSearches();
+	
+	long getNodes();
+	
+	long getLeafEvaluations();
+	
+	long getCutoffs();
+	
+	double getFirstMoveCutoffRate();
+	
+	int getMaxDepth();
+	
+	int getMaxPly();
+	
+	long getTableHits();
+	
+	long getTableMisses();
+	
+	double getTableHitRate();
+	
+	long getTotalMillis();
+	
+	long getNodesPerSecond();
+	
+	// The same figures for the last search only.
+	long getLastSearchNodes();
+	
+	int getLastSearchDepth();
+	
+	long getLastSearchMillis();
+	
+	long getLastSearchNodesPerSecond();
+	
+	/**
+	 * Clears the totals.
+	 */
+	void reset();
+}
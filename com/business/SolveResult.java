@@ -0,0 +1,44 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+public class SolveResult {
+	// The value of the position for the player to move.
+	private Outcome outcome;
+	
+	// A move that keeps the outcome: the winning move of a win and a drawing move of a draw. There is none
+	// for a loss or an unsolved position.
+	private Move move;
+	
+	private long nodes;
+	private long elapsedMillis;
+	
+	public SolveResult(Outcome outcome, Move move, long nodes, long elapsedMillis) {
+		this.outcome = outcome;
+		this.move = move;
+		this.nodes = nodes;
+		this.elapsedMillis = elapsedMillis;
+	}
+	
+	public Outcome getOutcome() {
+		return outcome;
+	}
+	
+	public Move getMove() {
+		return move;
+	}
+	
+	public long getNodes() {
+		return nodes;
+	}
+	
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+	
+	@Override
+	public String toString() {
+		return outcome + ((move != null)? ", move " + move.getMove() : "") + ", " + nodes + " nodes in " + elapsedMillis + " ms";
+	}
+}
@@ -0,0 +1,144 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+public class ThreatSearch {
+	// Returned when no forced win was found.
+	public static final int NOT_FOUND = -1;
+	
+	// The default number of positions a single threat search may visit.
+	public static final long DEFAULT_NODE_LIMIT = 50000;
+	
+	private Board board;
+	
+	// The maximum number of positions a single search may visit before giving up.
+	private long nodeLimit;
+	
+	// The number of positions visited by the current search.
+	private long nodes;
+	
+	// The first move of the forced win that was found, and the number of plies until the win.
+	private int winningMove;
+	private int winLength;
+	
+	/**
+	 * Creates a threat search over the given gameboard. The gameboard is changed during a search
+	 * but is always restored before the search returns.
+	 * 
+	 * @param board The gameboard to search.
+	 * @param nodeLimit The maximum number of positions a single search may visit.
+	 */
+	public ThreatSearch(Board board, long nodeLimit) {
+		this.board = board;
+		this.nodeLimit = nodeLimit;
+	}
+	
+	/**
+	 * Searches for a forced win of the given player, who is the one to move. Only forcing moves are tried:
+	 * the attacker must win right away or create a threat to win (a live ladder holding 4 tokens), and the
+	 * defender only tries the moves that can stop every threat. Because so few moves are tried, forced wins
+	 * many plies deep are found at a fraction of the cost of a full-width search.
+	 * 
+	 * @param attacker The player to move, who is looking for a forced win.
+	 * @param maxAttackerMoves The maximum number of moves the attacker may make, including the winning move.
+	 * @return The first move of the forced win, or NOT_FOUND if there is none within the limits.
+	 */
+	public int findForcedWin(Player attacker, int maxAttackerMoves) {
+		nodes = 0;
+		winningMove = NOT_FOUND;
+		winLength = attack(attacker, maxAttackerMoves, true);
+		return (winLength != NOT_FOUND)? winningMove : NOT_FOUND;
+	}
+	
+	/**
+	 * Returns the number of plies, including the winning move, of the last forced win that was found.
+	 * 
+	 * @return The length of the forced win, or NOT_FOUND.
+	 */
+	public int getWinLength() {
+		return winLength;
+	}
+	
+	public long getNodes() {
+		return nodes;
+	}
+	
+	/**
+	 * Tries every forcing move of the attacker.
+	 * 
+	 * @param attacker The player to move.
+	 * @param movesLeft The number of moves the attacker may still make.
+	 * @param isRoot Whether this is the position the search started from.
+	 * @return The number of plies until the forced win, or NOT_FOUND.
+	 */
+	private int attack(Player attacker, int movesLeft, boolean isRoot) {
+		long winningCells = board.getWinningCells(attacker) & board.getEmptyCells();
+		if (winningCells != 0) { // The attacker wins right away.
+			if (isRoot) {
+				winningMove = Long.numberOfTrailingZeros(winningCells);
+			}
+			return 1;
+		}
+		if ((movesLeft <= 1) || (++nodes > nodeLimit)) {
+			return NOT_FOUND;
+		}
+		
+		// If the defender threatens to win, the attacker's move must also stop every one of those threats.
+		Player defender = attacker.getNextPlayer();
+		boolean mustDefend = board.getWinningCells(defender) != 0;
+		long candidates = (mustDefend? board.getDefendingCells(defender) : board.getThreatCells(attacker)) & board.getEmptyCells();
+		while (candidates != 0) {
+			int move = Long.numberOfTrailingZeros(candidates);
+			candidates &= candidates - 1;
+			
+			board.setMoveOnBoard(move, attacker);
+			int defenseLength = NOT_FOUND;
+			if ((!mustDefend || board.getWinningCells(defender) == 0) && (board.getWinningCells(attacker) != 0)) {
+				defenseLength = defend(attacker, movesLeft - 1);
+			}
+			board.removeMoveFromBoard(move);
+			if (defenseLength != NOT_FOUND) {
+				if (isRoot) {
+					winningMove = move;
+				}
+				return defenseLength + 1;
+			}
+		}
+		return NOT_FOUND;
+	}
+	
+	/**
+	 * Tries every move of the defender that stops all of the attacker's threats. The attacker wins if every
+	 * such move still loses, or if there is no such move.
+	 * 
+	 * @param attacker The player that just made a threat.
+	 * @param movesLeft The number of moves the attacker may still make.
+	 * @return The number of plies until the forced win, or NOT_FOUND if the defender holds.
+	 */
+	private int defend(Player attacker, int movesLeft) {
+		Player defender = attacker.getNextPlayer();
+		if ((board.getWinningCells(defender) != 0) || board.isFull()) { // The defender wins first, or the game is a draw.
+			return NOT_FOUND;
+		}
+		
+		int longestWin = 2; // With no defense, the defender makes any move and the attacker wins.
+		long candidates = board.getDefendingCells(attacker) & board.getEmptyCells();
+		while (candidates != 0) {
+			int move = Long.numberOfTrailingZeros(candidates);
+			candidates &= candidates - 1;
+			
+			board.setMoveOnBoard(move, defender);
+			int attackLength = 0;
+			if (board.getWinningCells(attacker) == 0) { // This move stops every threat, so the attacker must find a new one.
+				attackLength = attack(attacker, movesLeft, false);
+			}
+			board.removeMoveFromBoard(move);
+			if (attackLength == NOT_FOUND) {
+				return NOT_FOUND;
+			}
+			longestWin = Math.max(longestWin, attackLength + 1);
+		}
+		return longestWin;
+	}
+}
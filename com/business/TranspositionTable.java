@@ -0,0 +1,191 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+import java.util.Arrays;
+
+public class TranspositionTable {
+	// How an entry is chosen to be overwritten when two positions map to the same slot.
+	public enum ReplacementPolicy {
+		DEPTH_PREFERRED, // Keep the entry that was searched deeper.
+		ALWAYS_REPLACE // Always keep the most recent entry.
+	}
+	
+	// The bound types of a stored score. EXACT is the real score of the position, LOWER_BOUND means the
+	// real score is at least the stored score and UPPER_BOUND means it is at most the stored score.
+	public static final int EXACT = 0;
+	public static final int LOWER_BOUND = 1;
+	public static final int UPPER_BOUND = 2;
+	
+	// Returned by getMove when an entry has no best move.
+	public static final int NO_MOVE = -1;
+	
+	// The default memory budget of a table.
+	public static final long DEFAULT_MEMORY_BUDGET = 16L * 1024 * 1024;
+	
+	// Every entry is made of a key and a packed data value, both longs. The key is stored XORed with the
+	// data value so that the table can be shared by several searching threads without locks: an entry
+	// torn by two threads writing the same slot at once no longer matches its key and reads as a miss.
+	private static final int BYTES_PER_ENTRY = 16;
+	
+	// The layout of the packed data value: score in bits 0-31, depth in bits 32-39, bound in bits 40-41,
+	// best move in bits 42-47, a valid flag in bit 48 so that a stored entry is never 0 and the generation
+	// of the search that stored it in bits 49-56.
+	private static final int DEPTH_SHIFT = 32;
+	private static final int BOUND_SHIFT = 40;
+	private static final int MOVE_SHIFT = 42;
+	private static final long MOVE_NONE = 0b111111L;
+	private static final long VALID_FLAG = 0b1L << 48;
+	private static final int GENERATION_SHIFT = 49;
+	private static final int GENERATION_MASK = 0xFF;
+	
+	// A score at least this large is a won (or lost) position. Such scores shrink by WIN_SCORE with every ply
+	// between the root and the win, so they are stored relative to the entry's own position.
+	private static final int WIN_SCORE = 100;
+	
+	private final long[] keys;
+	private final long[] entries;
+	private final int mask;
+	private final ReplacementPolicy replacementPolicy;
+	
+	// The generation of the current search. Entries of older generations can still be probed, but are replaced
+	// regardless of their depth, so that deep results of earlier moves don't fill the table for the rest of the game.
+	private int generation;
+	
+	public TranspositionTable() {
+		this(DEFAULT_MEMORY_BUDGET, ReplacementPolicy.DEPTH_PREFERRED);
+	}
+	
+	/**
+	 * Creates a table with the largest power-of-two number of entries that fits in the memory budget.
+	 * 
+	 * @param memoryBudget The maximum number of bytes used by the table.
+	 * @param replacementPolicy How entries are replaced when slots collide.
+	 */
+	public TranspositionTable(long memoryBudget, ReplacementPolicy replacementPolicy) {
+		if (memoryBudget < BYTES_PER_ENTRY) {
+			throw new IllegalArgumentException("The memory budget must hold at least one entry.");
+		}
+		long numOfEntries = Long.highestOneBit(Math.min(memoryBudget / BYTES_PER_ENTRY, 1L << 30));
+		this.keys = new long[(int) numOfEntries];
+		this.entries = new long[(int) numOfEntries];
+		this.mask = (int) numOfEntries - 1;
+		this.replacementPolicy = replacementPolicy;
+	}
+	
+	/**
+	 * Looks up the entry stored for the given key.
+	 * 
+	 * @param key The Zobrist key of the position.
+	 * @return The packed entry, or 0 if the position is not in the table.
+	 */
+	public long probe(long key) {
+		int slot = (int) key & mask;
+		long entry = entries[slot];
+		if ((keys[slot] ^ entry) == key) {
+			return entry;
+		}
+		return 0;
+	}
+	
+	/**
+	 * Stores the result of a search in the table, subject to the replacement policy.
+	 * 
+	 * @param key The Zobrist key of the position.
+	 * @param depth The number of levels that were searched below the position.
+	 * @param score The score that was found.
+	 * @param bound The bound type of the score (EXACT, LOWER_BOUND or UPPER_BOUND).
+	 * @param move The best move found, or NO_MOVE.
+	 */
+	public void store(long key, int depth, int score, int bound, int move) {
+		int slot = (int) key & mask;
+		long storedEntry = entries[slot];
+		if ((replacementPolicy == ReplacementPolicy.DEPTH_PREFERRED) && ((keys[slot] ^ storedEntry) != key) && (storedEntry != 0)
+			&& (getGeneration(storedEntry) == generation) && (getDepth(storedEntry) > depth)) {
+			return;
+		}
+		long packedMove = (move == NO_MOVE)? MOVE_NONE : move;
+		long entry = (score & 0xFFFFFFFFL) | ((long) depth << DEPTH_SHIFT) | ((long) bound << BOUND_SHIFT)
+			| (packedMove << MOVE_SHIFT) | VALID_FLAG | ((long) generation << GENERATION_SHIFT);
+		keys[slot] = key ^ entry;
+		entries[slot] = entry;
+	}
+	
+	/**
+	 * Starts a new generation of entries, once per move of the game. The entries stored so far stay in the table
+	 * but lose the protection of their depth.
+	 */
+	public void newSearch() {
+		generation = (generation + 1) & GENERATION_MASK;
+	}
+	
+	/**
+	 * Removes every entry from the table.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(entries, 0);
+	}
+	
+	public int getCapacity() {
+		return entries.length;
+	}
+	
+	public static int getScore(long entry) {
+		return (int) entry;
+	}
+	
+	public static int getDepth(long entry) {
+		return (int) ((entry >>> DEPTH_SHIFT) & 0xFF);
+	}
+	
+	public static int getBound(long entry) {
+		return (int) ((entry >>> BOUND_SHIFT) & 0b11);
+	}
+	
+	public static int getGeneration(long entry) {
+		return (int) ((entry >>> GENERATION_SHIFT) & GENERATION_MASK);
+	}
+	
+	public static int getMove(long entry) {
+		long move = (entry >>> MOVE_SHIFT) & MOVE_NONE;
+		return (move == MOVE_NONE)? NO_MOVE : (int) move;
+	}
+	
+	/**
+	 * Converts a score found at the given number of plies from the root into a score that can be stored
+	 * in the table. Winning scores count the plies from the root to the win, so they are made to count
+	 * them from the stored position instead and can be reused wherever the position is reached again.
+	 * 
+	 * @param score The score found by the search.
+	 * @param ply The number of moves made since the root at the position.
+	 * @return The score to be stored.
+	 */
+	public static int scoreToTable(int score, int ply) {
+		if (score >= WIN_SCORE) {
+			return score + (WIN_SCORE * ply);
+		}
+		if (score <= -WIN_SCORE) {
+			return score - (WIN_SCORE * ply);
+		}
+		return score;
+	}
+	
+	/**
+	 * The reverse of scoreToTable for a position reached at the given number of plies from the root.
+	 * 
+	 * @param score The stored score.
+	 * @param ply The number of moves made since the root at the position.
+	 * @return The score as the search would have found it.
+	 */
+	public static int scoreFromTable(int score, int ply) {
+		if (score >= WIN_SCORE) {
+			return score - (WIN_SCORE * ply);
+		}
+		if (score <= -WIN_SCORE) {
+			return score + (WIN_SCORE * ply);
+		}
+		return score;
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * @author Michael Lavoie
+ */
+package com.business;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public class VectorBatchEvaluator implements BatchEvaluator {
+	// The widest vector of longs the processor supports, Ex: 4 positions at once with AVX2 and 8 with AVX-512.
+	private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+	
+	private static final long[] LADDER_MASKS = Board.getLadderMasks();
+	private static final long[] NEUTRALIZER_MASKS = Board.getNeutralizerMasks();
+	
+	// The constants of the population count below.
+	private static final long ODD_BITS = 0x5555555555555555L;
+	private static final long BIT_PAIRS = 0x3333333333333333L;
+	private static final long NIBBLES = 0x0F0F0F0F0F0F0F0FL;
+	
+	// The counts of a block are gathered here before being narrowed to ints.
+	private final long[] threeTokenCounts = new long[SPECIES.length()];
+	private final long[] fourTokenCounts = new long[SPECIES.length()];
+	private final long[] completedCounts = new long[SPECIES.length()];
+	
+	/**
+	 * Counts the ladders of a whole vector of positions at a time: every lane holds a position, and every ladder
+	 * is tested against all of the lanes with one AND and one population count. The positions left over after the
+	 * last full vector are counted by ScalarBatchEvaluator. An evaluator is not meant to be shared between threads.
+	 */
+	@Override
+	public void evaluate(long[] playerMoves, long[] opponentMoves, int numOfPositions, int[] threeTokenLadders, int[] fourTokenLadders,
+		int[] completedLadders) {
+		int vectorEnd = SPECIES.loopBound(numOfPositions);
+		for (int position = 0; position < vectorEnd; position += SPECIES.length()) {
+			LongVector player = LongVector.fromArray(SPECIES, playerMoves, position);
+			LongVector opponent = LongVector.fromArray(SPECIES, opponentMoves, position);
+			LongVector threeTokens = LongVector.zero(SPECIES);
+			LongVector fourTokens = LongVector.zero(SPECIES);
+			LongVector completed = LongVector.zero(SPECIES);
+			for (int ladder = 0; ladder < LADDER_MASKS.length; ladder++) {
+				VectorMask<Long> live = opponent.and(LADDER_MASKS[ladder]).compare(VectorOperators.EQ, 0);
+				if (NEUTRALIZER_MASKS[ladder] != 0) {
+					live = live.and(opponent.and(NEUTRALIZER_MASKS[ladder]).compare(VectorOperators.NE, NEUTRALIZER_MASKS[ladder]));
+				}
+				if (!live.anyTrue()) {
+					continue;
+				}
+				LongVector tokens = bitCount(player.and(LADDER_MASKS[ladder]));
+				threeTokens = threeTokens.add(1, live.and(tokens.compare(VectorOperators.EQ, 3)));
+				fourTokens = fourTokens.add(1, live.and(tokens.compare(VectorOperators.EQ, 4)));
+				completed = completed.add(1, live.and(tokens.compare(VectorOperators.EQ, 5)));
+			}
+			threeTokens.intoArray(threeTokenCounts, 0);
+			fourTokens.intoArray(fourTokenCounts, 0);
+			completed.intoArray(completedCounts, 0);
+			for (int lane = 0; lane < SPECIES.length(); lane++) {
+				threeTokenLadders[position + lane] = (int) threeTokenCounts[lane];
+				fourTokenLadders[position + lane] = (int) fourTokenCounts[lane];
+				completedLadders[position + lane] = (int) completedCounts[lane];
+			}
+		}
+		ScalarBatchEvaluator.evaluate(playerMoves, opponentMoves, vectorEnd, numOfPositions, threeTokenLadders, fourTokenLadders, completedLadders);
+	}
+	
+	/**
+	 * Counts the set bits of every lane with shifts, masks and adds, since the incubating Vector API of Java 17 has
+	 * no lanewise population count. The byte counts are then summed into the low byte.
+	 * 
+	 * @param bits The lanes to count.
+	 * @return The number of set bits of every lane.
+	 */
+	private static LongVector bitCount(LongVector bits) {
+		LongVector pairs = bits.sub(bits.lanewise(VectorOperators.LSHR, 1).and(ODD_BITS));
+		LongVector nibbles = pairs.and(BIT_PAIRS).add(pairs.lanewise(VectorOperators.LSHR, 2).and(BIT_PAIRS));
+		LongVector bytes = nibbles.add(nibbles.lanewise(VectorOperators.LSHR, 4)).and(NIBBLES);
+		LongVector shorts = bytes.add(bytes.lanewise(VectorOperators.LSHR, 8));
+		LongVector ints = shorts.add(shorts.lanewise(VectorOperators.LSHR, 16));
+		return ints.add(ints.lanewise(VectorOperators.LSHR, 32)).and(0x7F);
+	}
+}